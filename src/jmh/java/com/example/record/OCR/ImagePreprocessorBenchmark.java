@@ -0,0 +1,108 @@
+package com.example.record.OCR;
+
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 휴대폰 티켓 사진(8/12MP, 품질 0.92 JPEG, 센서 노이즈 포함 합성 이미지) → ImagePreprocessor.process.
+ * 시간은 전처리 비용, 바이트 변화는 Setup 에서 출력한다(Vision 으로 나가는 요청 크기).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class ImagePreprocessorBenchmark {
+
+    @Param({"8", "12"})
+    public int megapixels;
+
+    private ByteString photo;
+    private ImagePreprocessor preprocessor;
+
+    @Setup
+    public void setup() throws IOException {
+        int w = (int) Math.round(Math.sqrt(megapixels * 1_000_000 * 4.0 / 3));
+        int h = w * 3 / 4;
+        photo = syntheticTicketPhoto(w, h, new Random(42));
+        preprocessor = new ImagePreprocessor(new SimpleMeterRegistry(), true, 2048, false, 0.85f, 60_000, 4);
+
+        ByteString out = preprocessor.process(photo);
+        System.out.printf("%n[payload] %dMP %dx%d: %,d B → %,d B (%.1f%%)%n",
+                megapixels, w, h, photo.size(), out.size(), 100.0 * out.size() / photo.size());
+    }
+
+    @TearDown
+    public void tearDown() {
+        preprocessor.shutdown();
+    }
+
+    @Benchmark
+    public ByteString process() {
+        return preprocessor.process(photo);
+    }
+
+    /** 종이 티켓을 찍은 사진 흉내: 배경 그라데이션 + 글자 + 센서 노이즈(±6) */
+    static ByteString syntheticTicketPhoto(int w, int h, Random rnd) throws IOException {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setPaint(new java.awt.GradientPaint(0, 0, new Color(236, 230, 214), w, h, new Color(200, 196, 186)));
+            g.fillRect(0, 0, w, h);
+            g.setColor(new Color(30, 30, 40));
+            String[] lines = {"BTS <Yet to Come in BUSAN>", "2022. 10. 15 (SAT) 6:00 PM",
+                    "BUSAN ASIAD MAIN STADIUM", "FLOOR 1 / A-14 / 3", "T1234567890  INTERPARK"};
+            int size = h / 18;
+            for (int i = 0; i < lines.length; i++) {
+                g.setFont(new Font(Font.SANS_SERIF, i == 0 ? Font.BOLD : Font.PLAIN, i == 0 ? size * 3 / 2 : size));
+                g.drawString(lines[i], w / 12, h / 6 + i * size * 2);
+            }
+        } finally {
+            g.dispose();
+        }
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            img.getRGB(0, y, w, 1, row, 0, w);
+            for (int x = 0; x < w; x++) {
+                int n = rnd.nextInt(13) - 6;
+                int p = row[x];
+                row[x] = (clamp(((p >> 16) & 0xff) + n) << 16) | (clamp(((p >> 8) & 0xff) + n) << 8) | clamp((p & 0xff) + n);
+            }
+            img.setRGB(0, y, w, 1, row, 0, w);
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteString.Output out = ByteString.newOutput(4 * 1024 * 1024);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam p = writer.getDefaultWriteParam();
+            p.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            p.setCompressionQuality(0.92f);  // 휴대폰 카메라 기본값 수준
+            writer.write(null, new IIOImage(img, null, null), p);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteString();
+    }
+
+    private static int clamp(int v) {
+        return v < 0 ? 0 : Math.min(255, v);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.record.OCR;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 티켓 OCR 원문 → 필드 추출: 예전 OcrController 헬퍼(호출마다 Pattern.compile, replaceAll 여러 번) vs TicketFieldExtractor.
+ * 표본은 resources/ocr/tickets.txt. -prof gc 의 gc.alloc.rate.norm 으로 호출당 할당량을 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketFieldExtractorBenchmark {
+
+    private List<String> corpus;
+    private TicketFieldExtractor extractor;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = TicketFieldExtractorBenchmark.class.getResourceAsStream("/ocr/tickets.txt")) {
+            String all = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            corpus = Arrays.stream(all.split("\n---\n"))
+                    .map(s -> s.lines().filter(l -> !l.startsWith("#")).reduce((a, b) -> a + "\n" + b).orElse(""))
+                    .toList();
+        }
+        extractor = new TicketFieldExtractor(new Gazetteer(null));  // 기본 사전(= 예전 하드코딩 목록)
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (String text : corpus) bh.consume(Legacy.fallbackExtract(text));
+    }
+
+    @Benchmark
+    public void extractor(Blackhole bh) {
+        for (String text : corpus) bh.consume(extractor.extract(text));
+    }
+
+    /** 기준선: 바꾸기 전 OcrController 의 fallbackExtract/to24h/fixSeatHangulMisread 그대로 */
+    static final class Legacy {
+
+        static Map<String, String> fallbackExtract(String src) {
+            Map<String, String> m = new LinkedHashMap<>();
+            if (src == null) return m;
+            String text = src.replace("\r", " ").replace("\n", " ").replaceAll("\\s+", " ").trim();
+
+            if (text.matches(".*\\bBTS\\b.*")) m.putIfAbsent("artist", "BTS");
+
+            var titleMatcher = Pattern.compile("Yet to Come in BUSAN", Pattern.CASE_INSENSITIVE).matcher(text);
+            if (titleMatcher.find()) m.putIfAbsent("title", "Yet to Come in BUSAN");
+
+            var venueMatcher = Pattern.compile("(부산\\s*아시아드\\s*주경기장|예술의전당\\s*[^\\s]+|블루스퀘어\\s*신한카드홀|체조경기장|올림픽공원|고척스카이돔|잠실주경기장)").matcher(text);
+            if (venueMatcher.find()) m.putIfAbsent("venue", venueMatcher.group(1));
+
+            var dateMatcher = Pattern.compile("(20\\d{2})[.년\\-\\s/]*(\\d{1,2})[.월\\-\\s/]*(\\d{1,2})\\s*일?").matcher(text);
+            if (dateMatcher.find()) {
+                m.putIfAbsent("date", String.format("%s-%02d-%02d",
+                        dateMatcher.group(1), Integer.parseInt(dateMatcher.group(2)), Integer.parseInt(dateMatcher.group(3))));
+            }
+
+            var time12 = Pattern.compile("(오전|오후)?\\s*(\\d{1,2})(?::(\\d{2}))?\\s*(am|pm|AM|PM)?").matcher(text);
+            if (time12.find()) {
+                String apKo = time12.group(1);
+                String hh = time12.group(2);
+                String mm = time12.group(3) == null ? "00" : time12.group(3);
+                String ap = time12.group(4);
+                String t = (apKo != null ? apKo + " " : "") + hh + ":" + mm + (ap != null ? " " + ap : "");
+                String t24 = to24h(t);
+                if (t24 != null) m.putIfAbsent("time", t24);
+            }
+
+            var seatMatcher = Pattern.compile("(\\d+\\s*층[^\\n]*?구역[^\\n]*?(\\d+)\\s*[일열]\\s*(\\d+)\\s*번)").matcher(text);
+            if (seatMatcher.find()) {
+                m.putIfAbsent("seat", seatMatcher.group(0).replaceAll("(\\d+)\\s*일\\s*(\\d+)\\s*번", "$1열 $2번"));
+            }
+            return m;
+        }
+
+        static String to24h(String in) {
+            if (in == null || in.isBlank()) return in;
+            String s = in.trim().replaceAll("오전", "AM").replaceAll("오후", "PM").replaceAll("시", ":00");
+            var m = Pattern.compile("(?i)\\b(AM|PM)\\b\\s*(\\d{1,2})(?::(\\d{2}))?").matcher(s);
+            if (m.find()) {
+                String ap = m.group(1).toUpperCase();
+                int hh = Integer.parseInt(m.group(2));
+                int mm = m.group(3) == null ? 0 : Integer.parseInt(m.group(3));
+                if (ap.equals("PM") && hh < 12) hh += 12;
+                if (ap.equals("AM") && hh == 12) hh = 0;
+                return String.format("%02d:%02d", hh, mm);
+            }
+            var m2 = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*(?i)(AM|PM)").matcher(s);
+            if (m2.find()) {
+                int hh = Integer.parseInt(m2.group(1));
+                int mm = Integer.parseInt(m2.group(2));
+                String ap = m2.group(3).toUpperCase();
+                if (ap.equals("PM") && hh < 12) hh += 12;
+                if (ap.equals("AM") && hh == 12) hh = 0;
+                return String.format("%02d:%02d", hh, mm);
+            }
+            return s.matches("\\b(\\d{1,2}):(\\d{2})\\b") ? s : in;
+        }
+    }
+}
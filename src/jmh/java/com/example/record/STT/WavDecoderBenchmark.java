@@ -0,0 +1,67 @@
+package com.example.record.STT;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WAV 업로드 → 16kHz mono s16le: WavDecoder(+PolyphaseResampler) 로 60초 분량을 끝까지 읽는 비용.
+ * ffmpeg 프로세스와의 비교는 ffmpeg 가 있는 환경에서 따로 잰다. 여기서는 자바 경로의 절대 비용(ms/op, B/op)만 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WavDecoderBenchmark {
+
+    private static final int SECONDS = 60;
+
+    /** 샘플레이트 x 채널 */
+    @Param({"44100x2", "48000x1", "16000x1"})
+    public String format;
+
+    private byte[] wav;
+    private final byte[] buf = new byte[64 * 1024];
+
+    @Setup
+    public void setup() {
+        String[] f = format.split("x");
+        wav = wav(Integer.parseInt(f[0]), Integer.parseInt(f[1]));
+    }
+
+    @Benchmark
+    public long decode() throws IOException {
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(wav), WavDecoder.MARK_LIMIT);
+        long total = 0;
+        try (InputStream pcm = WavDecoder.open(in).orElseThrow()) {
+            for (int n; (n = pcm.read(buf)) > 0; ) total += n;
+        }
+        return total;
+    }
+
+    /** 440Hz + 3kHz 두 음의 합(말소리 대역) */
+    private static byte[] wav(int rate, int channels) {
+        int frames = rate * SECONDS;
+        int dataBytes = frames * channels * 2;
+        ByteBuffer b = ByteBuffer.allocate(44 + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        b.put("RIFF".getBytes()).putInt(36 + dataBytes).put("WAVE".getBytes());
+        b.put("fmt ".getBytes()).putInt(16)
+                .putShort((short) 1).putShort((short) channels).putInt(rate)
+                .putInt(rate * channels * 2).putShort((short) (channels * 2)).putShort((short) 16);
+        b.put("data".getBytes()).putInt(dataBytes);
+        for (int i = 0; i < frames; i++) {
+            double t = (double) i / rate;
+            short s = (short) (6000 * Math.sin(2 * Math.PI * 440 * t) + 3000 * Math.sin(2 * Math.PI * 3000 * t));
+            for (int c = 0; c < channels; c++) b.putShort(s);
+        }
+        return b.array();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.record.openai;
+
+import com.example.record.JacksonConfig;
+import com.example.record.STT.GptAnalysisResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAI 응답 디코딩: 예전 방식(JsonNode 트리 + at() 경로 조회) vs 필요한 필드만 가진 record.
+ * 표본은 resources/openai 의 실제 응답 모양(분석 JSON 을 담은 채팅 응답 약 2 KB, 스트림 조각, 이미지 생성 응답).
+ * 본문은 Netty 버퍼에서 읽는 것과 같이 byte[] 에서, SSE 조각은 문자열에서 디코딩한다.
+ * -prof gc 의 gc.alloc.rate.norm 으로 호출당 할당량을 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenAiResponseDecodeBenchmark {
+
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
+
+    private byte[] chat;
+    private String chunk;
+    private byte[] image;
+
+    private ObjectMapper legacyMapper;   // 예전: 서비스마다 new ObjectMapper()
+    private ObjectMapper mapper;         // 지금: JacksonConfig 를 적용한 공용 매퍼
+    private ObjectReader chatReader;
+    private ObjectReader chunkReader;
+    private ObjectReader imageReader;
+    private ObjectReader analysisReader;
+
+    @Setup
+    public void setup() throws IOException {
+        chat = resource("chat-completion.json");
+        chunk = new String(resource("chat-chunk.json"), StandardCharsets.UTF_8).trim();
+        image = resource("image-generation.json");
+
+        legacyMapper = new ObjectMapper();
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().objectMapperCustomizer().customize(builder);
+        mapper = builder.build();
+        chatReader = mapper.readerFor(ChatCompletionResponse.class);
+        chunkReader = mapper.readerFor(ChatCompletionChunk.class);
+        imageReader = mapper.readerFor(ImageGenerationResponse.class);
+        analysisReader = mapper.readerFor(GptAnalysisResponse.class);
+    }
+
+    // ── /chat/completions 응답 → content + usage.total_tokens ──
+
+    @Benchmark
+    public int chatTree() throws IOException {
+        JsonNode root = legacyMapper.readTree(chat);
+        String content = root.at("/choices/0/message/content").asText();
+        return content.length() + root.path("usage").path("total_tokens").asInt(0);
+    }
+
+    @Benchmark
+    public int chatRecord() throws IOException {
+        ChatCompletionResponse res = chatReader.readValue(chat);
+        return res.content().length() + res.totalTokens();
+    }
+
+    // ── 채팅 응답 + 그 content(분석 JSON) 해석까지: SttGptService 의 한 번 호출 분량 ──
+
+    @Benchmark
+    public int analysisTree() throws IOException {
+        JsonNode root = legacyMapper.readTree(chat);
+        JsonNode parsed = legacyMapper.readTree(root.at("/choices/0/message/content").asText().trim());
+        String summary = parsed.path("summary").asText("").trim();
+        List<String> questions = legacyMapper.convertValue(parsed.path("questions"), STRING_LIST);
+        return summary.length() + questions.size();
+    }
+
+    @Benchmark
+    public int analysisRecord() throws IOException {
+        ChatCompletionResponse res = chatReader.readValue(chat);
+        GptAnalysisResponse parsed = analysisReader.readValue(res.content().trim());
+        return parsed.summary().trim().length() + parsed.questions().size();
+    }
+
+    // ── SSE 조각 하나 → delta.content ──
+
+    @Benchmark
+    public int chunkTree() throws IOException {
+        return legacyMapper.readTree(chunk).at("/choices/0/delta/content").asText().length();
+    }
+
+    @Benchmark
+    public int chunkRecord() throws IOException {
+        return chunkReader.<ChatCompletionChunk>readValue(chunk).content().length();
+    }
+
+    // ── /images/generations → data[0].url ──
+
+    @Benchmark
+    public int imageTree() throws IOException {
+        return legacyMapper.readTree(image).at("/data/0/url").asText().length();
+    }
+
+    @Benchmark
+    public int imageRecord() throws IOException {
+        return imageReader.<ImageGenerationResponse>readValue(image).url().length();
+    }
+
+    private static byte[] resource(String name) throws IOException {
+        try (InputStream in = OpenAiResponseDecodeBenchmark.class.getResourceAsStream("/openai/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.record;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 앱 공용 ObjectMapper 조정. 매퍼는 Boot 가 만든 빈 하나만 주입받아 쓴다(new ObjectMapper() 금지).
+ * 역직렬화기/직렬화기 캐시가 빈 하나에 쌓여 재사용되고, Blackbird 가 리플렉션 대신 LambdaMetafactory 로
+ * 접근자를 만들어 record 디코딩 비용을 줄인다.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer objectMapperCustomizer() {
+        return builder -> builder
+                .modulesToInstall(new BlackbirdModule())
+                .featuresToDisable(
+                        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,  // 외부 API 응답에 필드가 늘어도 깨지지 않게
+                        SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
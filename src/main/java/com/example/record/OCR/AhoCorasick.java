@@ -0,0 +1,136 @@
+package com.example.record.OCR;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick 다중 문자열 매칭 오토마톤(불변, 스레드 안전).
+ * 사전 크기(10개든 5만 개든)와 무관하게 검색 비용은 본문 길이 + 매칭 수에 비례한다.
+ * 빌드가 끝나면 노드별 전이를 정렬된 char[]/int[] 로 압축해 메모리를 줄인다.
+ */
+final class AhoCorasick {
+
+    @FunctionalInterface
+    interface HitConsumer {
+        /** @param pattern 패턴 번호, @param start 시작(포함), @param end 끝(미포함) — 입력 시퀀스 기준 */
+        void onHit(int pattern, int start, int end);
+    }
+
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final char[][] labels;   // 노드별 전이 문자(정렬)
+    private final int[][] targets;   // labels 와 같은 순서의 다음 노드
+    private final int[] fail;        // 실패 링크
+    private final int[] dictLink;    // 실패 체인에서 가장 가까운 "출력 있는" 노드(-1 이면 없음)
+    private final int[][] outputs;   // 노드에서 끝나는 패턴 번호들
+    private final int[] patternLength;
+
+    private AhoCorasick(char[][] labels, int[][] targets, int[] fail, int[] dictLink,
+                        int[][] outputs, int[] patternLength) {
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.dictLink = dictLink;
+        this.outputs = outputs;
+        this.patternLength = patternLength;
+    }
+
+    static AhoCorasick build(List<String> patterns) {
+        // 1) 트라이 구성(빌드 중에만 HashMap 사용)
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        trie.add(new HashMap<>());
+        out.add(null);
+
+        int[] lengths = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            String s = patterns.get(p);
+            lengths[p] = s.length();
+            if (s.isEmpty()) continue;
+            int node = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                Integer next = trie.get(node).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    out.add(null);
+                    trie.get(node).put(c, next);
+                }
+                node = next;
+            }
+            if (out.get(node) == null) out.set(node, new ArrayList<>(1));
+            out.get(node).add(p);
+        }
+
+        // 2) 압축
+        int n = trie.size();
+        char[][] labels = new char[n][];
+        int[][] targets = new int[n][];
+        int[][] outputs = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Map<Character, Integer> edges = trie.get(i);
+            char[] ls = new char[edges.size()];
+            int k = 0;
+            for (char c : edges.keySet()) ls[k++] = c;
+            Arrays.sort(ls);
+            int[] ts = new int[ls.length];
+            for (int j = 0; j < ls.length; j++) ts[j] = edges.get(ls[j]);
+            labels[i] = ls;
+            targets[i] = ts;
+            List<Integer> o = out.get(i);
+            outputs[i] = o == null ? NO_OUTPUT : o.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // 3) BFS 로 실패 링크/사전 링크 계산
+        int[] fail = new int[n];
+        int[] dictLink = new int[n];
+        Arrays.fill(dictLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int t : targets[0]) {
+            fail[t] = 0;
+            queue.add(t);
+        }
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int j = 0; j < labels[u].length; j++) {
+                char c = labels[u][j];
+                int v = targets[u][j];
+                int f = fail[u];
+                while (f != 0 && step(labels, targets, f, c) < 0) f = fail[f];
+                int fv = step(labels, targets, f, c);
+                fail[v] = (fv >= 0 && fv != v) ? fv : 0;
+                dictLink[v] = outputs[fail[v]].length > 0 ? fail[v] : dictLink[fail[v]];
+                queue.add(v);
+            }
+        }
+        return new AhoCorasick(labels, targets, fail, dictLink, outputs, lengths);
+    }
+
+    int patternLength(int pattern) {
+        return patternLength[pattern];
+    }
+
+    void search(CharSequence text, HitConsumer consumer) {
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = step(labels, targets, node, c)) < 0 && node != 0) node = fail[node];
+            node = Math.max(next, 0);
+
+            for (int o = node; o > 0; o = dictLink[o]) {
+                for (int p : outputs[o]) consumer.onHit(p, i + 1 - patternLength[p], i + 1);
+            }
+        }
+    }
+
+    private static int step(char[][] labels, int[][] targets, int node, char c) {
+        int idx = Arrays.binarySearch(labels[node], c);
+        return idx >= 0 ? targets[node][idx] : -1;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.record.OCR;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 공연장/아티스트/투어명 사전(ocr_gazetteer)을 Aho-Corasick 오토마톤으로 컴파일해 OCR 원문에서 찾는다.
+ * - 매칭은 공백/구두점 무시, 영문 대소문자 무시, 한글 NFC 정규화 기준
+ * - 테이블 변경(count, max(updated_at))을 주기적으로 확인해 백그라운드에서 다시 빌드하고 원자적으로 교체
+ * - 테이블이 비어 있거나 DB 를 못 읽으면 기본 사전으로 동작
+ */
+@Slf4j
+@Component
+public class Gazetteer {
+
+    /** 기본 사전(테이블이 비어 있을 때) — 예전 하드코딩 목록과 동일 */
+    private static final List<GazetteerEntry> DEFAULTS = List.of(
+            entry(GazetteerEntry.Kind.VENUE, "부산 아시아드 주경기장", null),
+            entry(GazetteerEntry.Kind.VENUE, "블루스퀘어 신한카드홀", null),
+            entry(GazetteerEntry.Kind.VENUE, "잠실주경기장", null),
+            entry(GazetteerEntry.Kind.VENUE, "고척스카이돔", null),
+            entry(GazetteerEntry.Kind.VENUE, "체조경기장", null),
+            entry(GazetteerEntry.Kind.VENUE, "올림픽공원", null),
+            entry(GazetteerEntry.Kind.ARTIST, "BTS", null),
+            entry(GazetteerEntry.Kind.TITLE, "Yet to Come in BUSAN", null),
+            entry(GazetteerEntry.Kind.TITLE, "Yet to Come in BUSAN", "Yet to Come in")
+    );
+
+    /** 찾은 결과(없으면 null) */
+    public record Hits(String venue, String artist, String title) {}
+
+    private final GazetteerEntryRepository repository;
+    private final AtomicReference<Snapshot> current;
+
+    public Gazetteer(GazetteerEntryRepository repository) {
+        this.repository = repository;
+        this.current = new AtomicReference<>(Snapshot.of(DEFAULTS, -1, null));
+    }
+
+    public Hits find(String text) {
+        if (text == null || text.isEmpty()) return new Hits(null, null, null);
+        return current.get().find(text);
+    }
+
+    public int size() {
+        return current.get().entries.size();
+    }
+
+    /** 테이블 변경을 감지하면 새 오토마톤을 만들어 교체한다(첫 실행은 기동 직후) */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${ocr.gazetteer.refresh-ms:60000}")
+    public void refreshIfChanged() {
+        try {
+            long count = repository.count();
+            LocalDateTime lastUpdated = repository.findLastUpdatedAt();
+            Snapshot snap = current.get();
+            if (count == snap.rowCount && Objects.equals(lastUpdated, snap.lastUpdated)) return;
+
+            List<GazetteerEntry> rows = count == 0 ? DEFAULTS : repository.findAll();
+            current.set(Snapshot.of(rows, count, lastUpdated));
+            log.info("OCR 사전 다시 빌드: {}건", rows.size());
+        } catch (DataAccessException e) {
+            log.warn("OCR 사전 갱신 실패(기존 사전 유지): {}", e.getMessage());
+        }
+    }
+
+    // ────────── 정규화 ──────────
+
+    /** 글자/숫자만 남기고(공백·구두점 제거) 소문자화. origIndex[i] = 원문에서의 위치 */
+    static String normalize(String src, int[] origIndex) {
+        StringBuilder sb = new StringBuilder(src.length());
+        for (int i = 0; i < src.length(); i++) {
+            char c = src.charAt(i);
+            if (!Character.isLetterOrDigit(c)) continue;
+            if (origIndex != null) origIndex[sb.length()] = i;
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static String nfc(String s) {
+        return Normalizer.isNormalized(s, Normalizer.Form.NFC) ? s : Normalizer.normalize(s, Normalizer.Form.NFC);
+    }
+
+    private static boolean isAsciiAlnum(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static GazetteerEntry entry(GazetteerEntry.Kind kind, String name, String alias) {
+        return GazetteerEntry.builder().kind(kind).name(name).alias(alias).build();
+    }
+
+    // ────────── 불변 스냅샷 ──────────
+
+    private static final class Snapshot {
+        final List<GazetteerEntry> entries;
+        final AhoCorasick automaton;
+        final long rowCount;
+        final LocalDateTime lastUpdated;
+
+        private Snapshot(List<GazetteerEntry> entries, AhoCorasick automaton, long rowCount, LocalDateTime lastUpdated) {
+            this.entries = entries;
+            this.automaton = automaton;
+            this.rowCount = rowCount;
+            this.lastUpdated = lastUpdated;
+        }
+
+        static Snapshot of(List<GazetteerEntry> rows, long rowCount, LocalDateTime lastUpdated) {
+            List<GazetteerEntry> entries = new ArrayList<>(rows.size());
+            List<String> patterns = new ArrayList<>(rows.size());
+            for (GazetteerEntry e : rows) {
+                String surface = e.getAlias() != null && !e.getAlias().isBlank() ? e.getAlias() : e.getName();
+                if (surface == null || e.getKind() == null) continue;
+                String key = normalize(nfc(surface), null);
+                if (key.isEmpty()) continue;
+                entries.add(e);
+                patterns.add(key);
+            }
+            return new Snapshot(List.copyOf(entries), AhoCorasick.build(patterns), rowCount, lastUpdated);
+        }
+
+        /** 종류별로 가장 긴(같으면 먼저 나온) 일치를 채택 */
+        Hits find(String text) {
+            String src = nfc(text);
+            int[] orig = new int[src.length()];
+            String norm = normalize(src, orig);
+
+            int[] best = {-1, -1, -1};
+            int[] bestLen = new int[3];
+            automaton.search(norm, (p, start, end) -> {
+                // 영문/숫자로 시작·끝나는 항목은 원문에서 단어 경계여야 한다(예: "BTS" ≠ "BTSX")
+                int os = orig[start], oe = orig[end - 1];
+                if (isAsciiAlnum(src.charAt(os)) && os > 0 && isAsciiAlnum(src.charAt(os - 1))) return;
+                if (isAsciiAlnum(src.charAt(oe)) && oe + 1 < src.length() && isAsciiAlnum(src.charAt(oe + 1))) return;
+
+                int k = entries.get(p).getKind().ordinal();
+                int len = end - start;
+                if (len > bestLen[k]) {
+                    best[k] = p;
+                    bestLen[k] = len;
+                }
+            });
+            return new Hits(nameOf(best[GazetteerEntry.Kind.VENUE.ordinal()]),
+                    nameOf(best[GazetteerEntry.Kind.ARTIST.ordinal()]),
+                    nameOf(best[GazetteerEntry.Kind.TITLE.ordinal()]));
+        }
+
+        private String nameOf(int p) {
+            return p < 0 ? null : entries.get(p).getName();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+// GazetteerEntry: OCR 텍스트에서 공연장/아티스트/투어명을 찾기 위한 사전(ocr_gazetteer) 항목 엔티티입니다.
+// 예: kind=VENUE, name="블루스퀘어 신한카드홀", alias="블루스퀘어 신한카드홀"
+
+package com.example.record.OCR;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ocr_gazetteer")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GazetteerEntry {
+
+    public enum Kind { VENUE, ARTIST, TITLE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // 자동 증가 ID
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private Kind kind; // 사전 종류
+
+    @Column(length = 100, nullable = false)
+    private String name; // 추출 결과로 돌려줄 정식 명칭
+
+    @Column(length = 100)
+    private String alias; // OCR 에서 찾을 표기(비어 있으면 name 으로 찾음)
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt; // 변경 감지(핫 리로드)용
+
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,15 @@
+// GazetteerEntryRepository: OCR 사전(ocr_gazetteer) 항목 조회 및 변경 감지를 위한 JPA 리포지토리입니다.
+
+package com.example.record.OCR;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+
+public interface GazetteerEntryRepository extends JpaRepository<GazetteerEntry, Long> {
+
+    // 가장 최근 변경 시각(추가/수정 감지용, 삭제는 count 로 감지)
+    @Query("select max(g.updatedAt) from GazetteerEntry g")
+    LocalDateTime findLastUpdatedAt();
+}
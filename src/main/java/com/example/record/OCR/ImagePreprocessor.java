@@ -0,0 +1,282 @@
+package com.example.record.OCR;
+
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vision 전송 전 이미지 전처리: EXIF 회전 보정 → 긴 변 기준 축소 → (선택) 흑백 → JPEG 재압축.
+ * 8~12MP 휴대폰 사진을 OCR 에 충분한 크기로 줄여 업로드 시간과 요청당 메모리를 줄인다.
+ * 디코딩은 소스 서브샘플링으로 필요한 해상도만 읽고, 작업은 코어 수 크기의 제한된 풀에서 돈다.
+ * 실패/과부하 시에는 원본을 그대로 보낸다(전처리 때문에 OCR 이 실패하지 않도록).
+ */
+@Slf4j
+@Component
+public class ImagePreprocessor {
+
+    private final boolean enabled;
+    private final int maxLongEdge;
+    private final boolean grayscale;
+    private final float jpegQuality;
+    private final long timeoutMs;
+
+    private final ThreadPoolExecutor pool;
+
+    private final DistributionSummary bytesIn;
+    private final DistributionSummary bytesOut;
+    private final Timer latency;
+    private final MeterRegistry meterRegistry;
+
+    public ImagePreprocessor(MeterRegistry meterRegistry,
+                             @Value("${ocr.preprocess.enabled:true}") boolean enabled,
+                             @Value("${ocr.preprocess.max-long-edge:2048}") int maxLongEdge,
+                             @Value("${ocr.preprocess.grayscale:false}") boolean grayscale,
+                             @Value("${ocr.preprocess.jpeg-quality:0.85}") float jpegQuality,
+                             @Value("${ocr.preprocess.timeout-ms:5000}") long timeoutMs,
+                             @Value("${ocr.preprocess.queue-capacity:64}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxLongEdge = maxLongEdge;
+        this.grayscale = grayscale;
+        this.jpegQuality = jpegQuality;
+        this.timeoutMs = timeoutMs;
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(cores, cores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "ocr-preprocess-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.bytesIn = DistributionSummary.builder("ocr.preprocess.bytes").tag("stage", "in")
+                .baseUnit("bytes").register(meterRegistry);
+        this.bytesOut = DistributionSummary.builder("ocr.preprocess.bytes").tag("stage", "out")
+                .baseUnit("bytes").register(meterRegistry);
+        this.latency = Timer.builder("ocr.preprocess.latency").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** 전처리된 이미지(JPEG). 줄일 필요가 없거나 실패하면 원본 그대로 */
+    public ByteString process(ByteString original) {
+        if (!enabled || original == null || original.isEmpty()) return original;
+        bytesIn.record(original.size());
+
+        ByteString result = original;
+        try {
+            Future<ByteString> f = pool.submit(() -> latency.recordCallable(() -> transform(original)));
+            try {
+                result = f.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (java.util.concurrent.TimeoutException e) {
+                f.cancel(true);
+                skipped("timeout");
+            }
+        } catch (RejectedExecutionException e) {
+            skipped("busy");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            skipped("interrupted");
+        } catch (Exception e) {
+            log.debug("이미지 전처리 실패, 원본 사용: {}", e.getMessage());
+            skipped("error");
+        }
+
+        bytesOut.record(result.size());
+        return result;
+    }
+
+    private void skipped(String reason) {
+        Counter.builder("ocr.preprocess.skipped").tag("reason", reason).register(meterRegistry).increment();
+    }
+
+    private ByteString transform(ByteString original) throws IOException {
+        int orientation = ExifOrientation.read(original);
+
+        try (ImageInputStream iis = ImageIO.createImageInputStream(original.newInput())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return original;  // 모르는 포맷 → Vision 에 그대로
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                int longEdge = Math.max(w, h);
+
+                if (longEdge <= maxLongEdge && orientation == 1 && !grayscale) return original;
+
+                // 필요한 해상도만 디코딩: 목표 크기의 정수배 간격으로 픽셀을 건너뛰며 읽는다
+                ImageReadParam param = reader.getDefaultReadParam();
+                int sub = Math.max(1, longEdge / maxLongEdge);
+                if (sub > 1) param.setSourceSubsampling(sub, sub, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                BufferedImage scaled = scale(decoded);
+                BufferedImage oriented = orient(scaled, orientation);
+                ByteString jpeg = encodeJpeg(oriented);
+
+                // 회전 보정이 필요 없는데 오히려 커졌으면 원본이 낫다
+                return (orientation == 1 && jpeg.size() >= original.size()) ? original : jpeg;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** 긴 변을 maxLongEdge 에 맞춰 축소(+흑백/알파 제거) */
+    private BufferedImage scale(BufferedImage src) {
+        int w = src.getWidth(), h = src.getHeight();
+        double ratio = Math.min(1.0, (double) maxLongEdge / Math.max(w, h));
+        int tw = Math.max(1, (int) Math.round(w * ratio));
+        int th = Math.max(1, (int) Math.round(h * ratio));
+
+        BufferedImage dst = new BufferedImage(tw, th, grayscale ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);  // 투명 PNG 배경
+            g.fillRect(0, 0, tw, th);
+            g.drawImage(src, 0, 0, tw, th, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    /** EXIF Orientation(1~8)에 맞춰 바로 세운다 */
+    private static BufferedImage orient(BufferedImage src, int orientation) {
+        if (orientation <= 1 || orientation > 8) return src;
+        int w = src.getWidth(), h = src.getHeight();
+        boolean swap = orientation >= 5;
+
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.scale(-1, 1); t.translate(-h, 0); t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+
+        BufferedImage dst = new BufferedImage(swap ? h : w, swap ? w : h, src.getType());
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.drawImage(src, t, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    private ByteString encodeJpeg(BufferedImage img) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteString.Output out = ByteString.newOutput(64 * 1024);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam p = writer.getDefaultWriteParam();
+            p.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            p.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(img, null, null), p);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteString();
+    }
+
+    /** JPEG APP1(Exif) 에서 Orientation 태그(0x0112)만 읽는 최소 파서 */
+    static final class ExifOrientation {
+
+        private ExifOrientation() {}
+
+        static int read(ByteString img) {
+            try {
+                // 헤더만 본다(Exif 는 APP1 세그먼트라 최대 64KB)
+                byte[] b = img.substring(0, Math.min(img.size(), 128 * 1024)).toByteArray();
+                if (b.length < 4 || (b[0] & 0xFF) != 0xFF || (b[1] & 0xFF) != 0xD8) return 1;
+
+                int pos = 2;
+                while (pos + 4 <= b.length && (b[pos] & 0xFF) == 0xFF) {
+                    int marker = b[pos + 1] & 0xFF;
+                    int len = u16(b, pos + 2, false);
+                    if (marker == 0xDA || len < 2) break;  // SOS 이후는 영상 데이터
+                    if (marker == 0xE1 && pos + 10 <= b.length
+                            && b[pos + 4] == 'E' && b[pos + 5] == 'x' && b[pos + 6] == 'i' && b[pos + 7] == 'f') {
+                        return fromTiff(b, pos + 10, Math.min(b.length, pos + 2 + len));
+                    }
+                    pos += 2 + len;
+                }
+            } catch (RuntimeException ignore) {
+                // 손상된 헤더 → 회전 보정 없음
+            }
+            return 1;
+        }
+
+        private static int fromTiff(byte[] b, int tiff, int end) {
+            if (tiff + 8 > end) return 1;
+            boolean le = b[tiff] == 'I' && b[tiff + 1] == 'I';
+            int ifd = tiff + (int) u32(b, tiff + 4, le);
+            if (ifd + 2 > end) return 1;
+            int count = u16(b, ifd, le);
+            for (int i = 0; i < count; i++) {
+                int e = ifd + 2 + i * 12;
+                if (e + 12 > end) break;
+                if (u16(b, e, le) == 0x0112) {
+                    int v = u16(b, e + 8, le);
+                    return (v >= 1 && v <= 8) ? v : 1;
+                }
+            }
+            return 1;
+        }
+
+        private static int u16(byte[] b, int i, boolean le) {
+            int a = b[i] & 0xFF, c = b[i + 1] & 0xFF;
+            return le ? (c << 8) | a : (a << 8) | c;
+        }
+
+        private static long u32(byte[] b, int i, boolean le) {
+            long v = 0;
+            for (int k = 0; k < 4; k++) {
+                int shift = le ? 8 * k : 8 * (3 - k);
+                v |= (long) (b[i + k] & 0xFF) << shift;
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.record.OCR;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 장의 티켓 이미지를 한 요청으로 받아 병렬 처리하고, 끝나는 순서대로 NDJSON 한 줄씩 흘려보낸다.
+ * 동시에 도는 OCR 요청은 VisionBatchDispatcher 가 batchAnnotateImages 로 묶어 보낸다.
+ */
+@Service
+public class OcrBatchService {
+
+    /** NDJSON 한 줄: 업로드 순번(index) + 결과 또는 오류 */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(int index, Map<String, String> fields, String error) {}
+
+    private final OcrService ocrService;
+    private final TicketExtractionService extractionService;
+    private final ObjectMapper om;
+    private final Timer itemTimer;
+
+    private final int parallelism;
+    private final int maxFiles;
+    private final long timeoutMs;
+
+    public OcrBatchService(OcrService ocrService,
+                           TicketExtractionService extractionService,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${ocr.batch.parallelism:8}") int parallelism,
+                           @Value("${ocr.batch.max-files:100}") int maxFiles,
+                           @Value("${ocr.batch.timeout-ms:300000}") long timeoutMs) {
+        this.ocrService = ocrService;
+        this.extractionService = extractionService;
+        this.om = objectMapper;
+        this.itemTimer = Timer.builder("ocr.batch.item.latency").register(meterRegistry);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxFiles = maxFiles;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    /** 처리를 시작하고 바로 emitter 를 돌려준다. 모든 파트가 끝나면 emitter 를 닫는다 */
+    public ResponseBodyEmitter extractAll(List<MultipartFile> files) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMs);
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger remaining = new AtomicInteger(files.size());
+
+        // 파트는 요청이 끝날 때까지(= emitter 종료 전까지) 유효하므로 워커에서 바로 스트림을 읽는다
+        Thread.ofVirtual().name("ocr-batch-dispatch").start(() -> {
+            for (int i = 0; i < files.size(); i++) {
+                int index = i;
+                MultipartFile file = files.get(i);
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    emitter.completeWithError(e);
+                    return;
+                }
+                Thread.ofVirtual().start(() -> {
+                    try {
+                        send(emitter, itemTimer.record(() -> processOne(index, file)));
+                    } finally {
+                        permits.release();
+                        if (remaining.decrementAndGet() == 0) emitter.complete();
+                    }
+                });
+            }
+        });
+        return emitter;
+    }
+
+    private Item processOne(int index, MultipartFile file) {
+        try {
+            OcrController.validateImage(file);
+            String text;
+            try (InputStream in = file.getInputStream()) {
+                text = ocrService.extractTextFromImage(in);
+            }
+            return new Item(index, extractionService.extractFields(text), null);
+        } catch (Exception e) {
+            return new Item(index, null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private void send(ResponseBodyEmitter emitter, Item item) {
+        try {
+            String line = om.writeValueAsString(item) + "\n";
+            synchronized (emitter) {  // emitter.send 는 스레드 안전하지 않다
+                emitter.send(line, MediaType.APPLICATION_NDJSON);
+            }
+        } catch (Exception ignore) {
+            // 클라이언트가 끊었으면 남은 결과는 버린다
+        }
+    }
+}
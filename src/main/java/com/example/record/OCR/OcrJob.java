@@ -0,0 +1,57 @@
+// OcrJob: 비동기 OCR(/ocr/jobs) 작업의 상태와 결과를 저장하는 엔티티입니다.
+// 접수된 이미지도 함께 저장해 서버가 재시작돼도 대기 중인 작업을 이어서 처리합니다.
+
+package com.example.record.OCR;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ocr_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OcrJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    @Id
+    @Column(length = 36)
+    private String id; // UUID
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private Status status; // 작업 상태
+
+    @Column(name = "user_id")
+    private Long userId; // 작업을 요청한 사용자 ID(조회 권한 확인용)
+
+    @Column(columnDefinition = "bytea")
+    private byte[] image; // 업로드 원본(처리 완료 후 비움)
+
+    @Column(name = "result_json", columnDefinition = "TEXT")
+    private String resultJson; // PerformanceInfo JSON
+
+    @Column(columnDefinition = "TEXT")
+    private String error; // 실패 사유
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt; // 접수 시각
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt; // 마지막 상태 변경 시각
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil; // RUNNING 점유 만료 시각(지나면 다른 인스턴스가 다시 가져갈 수 있음)
+
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner; // 점유할 때마다 새로 만드는 토큰. 결과 저장은 이 토큰이 그대로일 때만
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
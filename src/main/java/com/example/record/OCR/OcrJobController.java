@@ -0,0 +1,81 @@
+package com.example.record.OCR;
+
+import com.example.record.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 비동기 OCR: 이미지 접수 → jobId 즉시 반환 → 폴링(GET /ocr/jobs/{id}) 또는 SSE(/events)로 결과 수신.
+ * Tomcat 스레드가 Vision/GPT 응답(3~5초)을 붙잡고 기다리지 않는다.
+ */
+@RestController
+@RequestMapping("/ocr/jobs")
+@RequiredArgsConstructor
+public class OcrJobController {
+
+    private final OcrJobService jobService;
+
+    @Value("${ocr.jobs.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    /** 접수: 202 + jobId. 대기열이 가득 차면 429 + Retry-After */
+    @PostMapping(
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<OcrJobResponse> submit(@RequestParam MultipartFile file,
+                                                 @AuthenticationPrincipal User user) throws Exception {
+        OcrController.validateImage(file);
+
+        try {
+            OcrJob job = jobService.submit(file.getBytes(), user != null ? user.getId() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/ocr/jobs/" + job.getId())
+                    .body(jobService.toResponse(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .build();
+        }
+    }
+
+    /** 폴링 */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OcrJobResponse> get(@PathVariable String id,
+                                              @AuthenticationPrincipal User user) {
+        return jobService.find(id)
+                .filter(job -> isOwner(job, user))
+                .map(job -> {
+                    ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+                    if (!job.isFinished()) ok.header(HttpHeaders.RETRY_AFTER, "1");
+                    return ok.body(jobService.toResponse(job));
+                })
+                .orElse(ResponseEntity.status(404).build());
+    }
+
+    /** SSE: 완료 시 "result" 이벤트 1건 후 종료 */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String id,
+                                             @AuthenticationPrincipal User user) {
+        return jobService.find(id)
+                .filter(job -> isOwner(job, user))
+                .map(job -> ResponseEntity.ok(jobService.subscribe(job)))
+                .orElse(ResponseEntity.status(404).build());
+    }
+
+    private static boolean isOwner(OcrJob job, User user) {
+        // 소유자가 없는 작업(익명 접수)이나 비로그인 요청은 남의 작업일 수 있으니 404 로 숨긴다
+        return user != null && job.getUserId() != null && Objects.equals(job.getUserId(), user.getId());
+    }
+}
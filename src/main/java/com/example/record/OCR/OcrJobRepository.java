@@ -0,0 +1,49 @@
+// OcrJobRepository: 비동기 OCR 작업(ocr_job) 조회/복구를 위한 JPA 리포지토리입니다.
+
+package com.example.record.OCR;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OcrJobRepository extends JpaRepository<OcrJob, String> {
+
+    // 복구 대상: 대기 중이거나, 처리 중이었지만 점유가 만료된 작업(오래된 순, 이미지는 읽지 않음)
+    @Query("select j.id from OcrJob j where j.status = :queued"
+            + " or (j.status = :running and (j.leaseUntil is null or j.leaseUntil < :now))"
+            + " order by j.createdAt asc")
+    List<String> findClaimableIds(OcrJob.Status queued, OcrJob.Status running, LocalDateTime now, Pageable page);
+
+    // 조건부 점유: 위 조건을 만족할 때만 RUNNING + 만료 시각 + 점유 토큰으로 바꾼다. 1 이면 이 인스턴스가 가져간 것
+    @Modifying
+    @Transactional
+    @Query("update OcrJob j set j.status = :running, j.leaseUntil = :leaseUntil, j.leaseOwner = :owner, j.updatedAt = :now"
+            + " where j.id = :id and (j.status = :queued"
+            + " or (j.status = :running and (j.leaseUntil is null or j.leaseUntil < :now)))")
+    int claim(String id, OcrJob.Status queued, OcrJob.Status running, LocalDateTime now, LocalDateTime leaseUntil,
+              String owner);
+
+    // 조건부 완료: 아직 이 토큰으로 점유 중일 때만 결과를 쓴다. 0 이면 점유가 만료돼 다른 워커가 다시 가져간 것
+    @Modifying
+    @Transactional
+    @Query("update OcrJob j set j.status = :status, j.resultJson = :resultJson, j.error = :error, j.image = null,"
+            + " j.leaseUntil = null, j.leaseOwner = null, j.updatedAt = :now"
+            + " where j.id = :id and j.status = :running and j.leaseOwner = :owner")
+    int complete(String id, OcrJob.Status running, String owner, OcrJob.Status status, String resultJson, String error,
+                 LocalDateTime now);
+
+    // SSE 구독 중인 작업 가운데 (어느 인스턴스에서든) 끝난 것. 끝난 작업은 이미지가 비어 있어 가볍다
+    List<OcrJob> findByIdInAndStatusIn(Collection<String> ids, Collection<OcrJob.Status> statuses);
+
+    // 보존 기간이 지난 완료/실패 작업 정리
+    @Modifying
+    @Transactional
+    @Query("delete from OcrJob j where j.status in :statuses and j.updatedAt < :cutoff")
+    int deleteFinishedBefore(Collection<OcrJob.Status> statuses, LocalDateTime cutoff);
+}
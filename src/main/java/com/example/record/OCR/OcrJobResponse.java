@@ -0,0 +1,8 @@
+package com.example.record.OCR;
+
+public record OcrJobResponse(
+        String jobId,
+        String status,
+        PerformanceInfo result,
+        String error
+) {}
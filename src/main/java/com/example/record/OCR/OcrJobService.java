@@ -0,0 +1,268 @@
+package com.example.record.OCR;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기 OCR 작업 처리기.
+ * 이미지를 ocr_job 테이블에 저장하고 바로 jobId 를 돌려준 뒤, 제한된 워커 풀 + 제한된 대기열에서
+ * OCR → 구조화를 수행한다. 대기열이 가득 차면 RejectedExecutionException 으로 거절한다(컨트롤러가 429 응답).
+ * 작업은 처리 직전에 조건부 UPDATE 로 점유(RUNNING + lease_until + lease_owner)하므로 여러 인스턴스가 같은 작업을
+ * 두 번 처리하지 않는다. 결과도 같은 점유 토큰일 때만 쓰므로, 점유가 만료된 느린 워커가 새 결과를 덮어쓰지 않는다.
+ * 재시작/장애로 멈춘 RUNNING 작업은 점유가 만료된 뒤에야 다시 대기열에 들어간다.
+ * SSE 구독은 이 인스턴스 메모리에 있으므로, 다른 인스턴스가 끝낸 작업은 DB 를 주기적으로 확인해 알려 준다.
+ * 끝난 작업은 retention-ms 가 지나면 지운다.
+ */
+@Slf4j
+@Service
+public class OcrJobService {
+
+    private static final List<OcrJob.Status> FINISHED = List.of(OcrJob.Status.DONE, OcrJob.Status.FAILED);
+
+    private final OcrJobRepository repository;
+    private final OcrService ocrService;
+    private final TicketExtractionService extractionService;
+    private final ObjectMapper om;
+    private final long sseTimeoutMs;
+    private final long leaseMs;
+    private final long retentionMs;
+
+    private final ThreadPoolExecutor workers;
+    private final Set<String> enqueued = ConcurrentHashMap.newKeySet();          // 메모리 대기열에 올라간 jobId
+    private final Map<String, List<SseEmitter>> listeners = new ConcurrentHashMap<>();
+
+    public OcrJobService(OcrJobRepository repository,
+                         OcrService ocrService,
+                         TicketExtractionService extractionService,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${ocr.jobs.workers:4}") int workerCount,
+                         @Value("${ocr.jobs.queue-capacity:100}") int queueCapacity,
+                         @Value("${ocr.jobs.sse-timeout-ms:120000}") long sseTimeoutMs,
+                         @Value("${ocr.jobs.lease-ms:300000}") long leaseMs,
+                         @Value("${ocr.jobs.retention-ms:86400000}") long retentionMs) {
+        this.repository = repository;
+        this.ocrService = ocrService;
+        this.extractionService = extractionService;
+        this.om = objectMapper;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.leaseMs = leaseMs;
+        this.retentionMs = retentionMs;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> new Thread(r, "ocr-job-" + seq.incrementAndGet()));
+
+        Gauge.builder("ocr.jobs.queue.depth", workers, w -> w.getQueue().size()).register(meterRegistry);
+        Gauge.builder("ocr.jobs.active", workers, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // 진행 중 작업은 RUNNING 으로 남고, 점유가 만료되면 (어느 인스턴스든) 다시 처리한다
+        workers.shutdownNow();
+    }
+
+    /** 작업 접수. 대기열이 가득 차면 RejectedExecutionException */
+    public OcrJob submit(byte[] image, Long userId) {
+        if (workers.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("OCR 작업 대기열이 가득 찼습니다.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        OcrJob job = repository.save(OcrJob.builder()
+                .id(UUID.randomUUID().toString())
+                .status(OcrJob.Status.QUEUED)
+                .userId(userId)
+                .image(image)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        try {
+            enqueue(job.getId());
+        } catch (RejectedExecutionException e) {
+            // 저장 직후 경합으로 자리가 없어졌으면 접수 자체를 취소
+            repository.deleteById(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<OcrJob> find(String jobId) {
+        return repository.findById(jobId);
+    }
+
+    public OcrJobResponse toResponse(OcrJob job) {
+        PerformanceInfo result = null;
+        if (job.getResultJson() != null) {
+            try {
+                result = om.readValue(job.getResultJson(), PerformanceInfo.class);
+            } catch (IOException ignore) {
+                // 저장된 결과가 깨졌으면 result 없이 상태만
+            }
+        }
+        return new OcrJobResponse(job.getId(), job.getStatus().name(), result, job.getError());
+    }
+
+    /** 완료될 때 결과를 한 번 밀어주는 SSE 구독. 이미 끝났으면 바로 보내고 닫는다 */
+    public SseEmitter subscribe(OcrJob job) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        if (job.isFinished()) {
+            sendAndComplete(emitter, toResponse(job));
+            return emitter;
+        }
+
+        List<SseEmitter> list = listeners.computeIfAbsent(job.getId(), k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+        Runnable remove = () -> list.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // 등록 사이에 작업이 끝났을 수 있으니 한 번 더 확인
+        repository.findById(job.getId()).filter(OcrJob::isFinished).ifPresent(this::notifyListeners);
+        return emitter;
+    }
+
+    // ────────── 워커 ──────────
+
+    private void enqueue(String jobId) {
+        if (!enqueued.add(jobId)) return;
+        try {
+            workers.execute(() -> {
+                try {
+                    process(jobId);
+                } finally {
+                    enqueued.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enqueued.remove(jobId);
+            throw e;
+        }
+    }
+
+    private void process(String jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        String owner = UUID.randomUUID().toString();
+        int claimed = repository.claim(jobId, OcrJob.Status.QUEUED, OcrJob.Status.RUNNING,
+                now, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs)), owner);
+        if (claimed == 0) return;  // 끝났거나 다른 인스턴스가 처리 중
+
+        OcrJob job = repository.findById(jobId).orElse(null);
+        if (job == null) return;
+
+        try {
+            String text = ocrService.extractTextFromImage(job.getImage());
+            PerformanceInfo info = extractionService.extractPerformanceInfo(text);
+            job.setResultJson(om.writeValueAsString(info));
+            job.setStatus(OcrJob.Status.DONE);
+        } catch (Exception e) {
+            job.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            job.setStatus(OcrJob.Status.FAILED);
+        }
+
+        // 결과와 함께 원본 이미지와 점유를 비운다. 점유를 잃었으면(만료 후 재점유) 쓰지 않는다
+        int written = repository.complete(jobId, OcrJob.Status.RUNNING, owner, job.getStatus(),
+                job.getResultJson(), job.getError(), LocalDateTime.now());
+        if (written == 0) {
+            log.warn("OCR 작업 {} 점유를 잃어 결과를 버림(다른 워커가 처리 중)", jobId);
+            return;
+        }
+        notifyListeners(job);
+    }
+
+    private void notifyListeners(OcrJob job) {
+        List<SseEmitter> list = listeners.remove(job.getId());
+        if (list == null) return;
+        OcrJobResponse response = toResponse(job);
+        list.forEach(emitter -> sendAndComplete(emitter, response));
+    }
+
+    private static void sendAndComplete(SseEmitter emitter, OcrJobResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("result").data(response));
+            emitter.complete();
+        } catch (Exception e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /** 다른 인스턴스에서 끝난 작업의 구독자에게 결과를 보낸다(이 인스턴스에서 끝난 작업은 process 가 바로 보낸다) */
+    @Scheduled(initialDelayString = "${ocr.jobs.sse-poll-ms:1000}", fixedDelayString = "${ocr.jobs.sse-poll-ms:1000}")
+    public void pollListeners() {
+        if (listeners.isEmpty()) return;
+        try {
+            repository.findByIdInAndStatusIn(List.copyOf(listeners.keySet()), FINISHED)
+                    .forEach(this::notifyListeners);
+        } catch (Exception e) {
+            log.warn("OCR 작업 구독 확인 실패: {}", e.getMessage());
+        }
+    }
+
+    // ────────── 복구 ──────────
+
+    /** 기동 직후: 중단됐던 작업을 다시 대기열로 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        requeueUnfinished();
+    }
+
+    /** 대기열 여유가 생기면 DB 에만 남아 있는 QUEUED 작업과 점유가 만료된 RUNNING 작업을 채워 넣는다 */
+    @Scheduled(initialDelayString = "${ocr.jobs.sweep-ms:10000}", fixedDelayString = "${ocr.jobs.sweep-ms:10000}")
+    public void requeueUnfinished() {
+        if (workers.isShutdown()) return;
+        try {
+            List<String> ids = repository.findClaimableIds(OcrJob.Status.QUEUED, OcrJob.Status.RUNNING,
+                    LocalDateTime.now(), PageRequest.of(0, 100));
+            for (String id : ids) {
+                if (workers.getQueue().remainingCapacity() == 0) break;
+                if (enqueued.contains(id)) continue;
+                enqueue(id);
+            }
+        } catch (RejectedExecutionException e) {
+            // 다음 주기에 다시 시도
+        } catch (Exception e) {
+            log.warn("OCR 작업 복구 실패: {}", e.getMessage());
+        }
+    }
+
+    /** 보존 기간이 지난 완료/실패 작업 삭제 */
+    @Scheduled(initialDelayString = "${ocr.jobs.cleanup-ms:3600000}", fixedDelayString = "${ocr.jobs.cleanup-ms:3600000}")
+    public void deleteExpired() {
+        try {
+            int deleted = repository.deleteFinishedBefore(FINISHED,
+                    LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(retentionMs)));
+            if (deleted > 0) log.info("OCR 작업 {}건 정리(보존 기간 경과)", deleted);
+        } catch (Exception e) {
+            log.warn("OCR 작업 정리 실패: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.record.OCR;
+
+import com.example.record.cache.TtlLruCache;
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * 이미지 바이트의 SHA-256 을 키로 하는 OCR 결과 캐시.
+ * 1차: 프로세스 내 LRU(+TTL), 2차: Postgres ocr_result_cache 테이블.
+ * 같은 사진을 재업로드하거나 /ocr/extract 직후 /ocr/structured 를 부르면 Vision 호출을 건너뛴다.
+ */
+@Slf4j
+@Component
+public class OcrResultCache {
+
+    private final OcrResultCacheRepository repository;
+    private final boolean enabled;
+    private final boolean dbEnabled;
+    private final Duration dbTtl;
+    private final TtlLruCache<String, String> memory;
+
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    public OcrResultCache(OcrResultCacheRepository repository,
+                          MeterRegistry meterRegistry,
+                          @Value("${ocr.cache.enabled:true}") boolean enabled,
+                          @Value("${ocr.cache.memory.max-entries:500}") int maxEntries,
+                          @Value("${ocr.cache.memory.ttl-minutes:60}") long memoryTtlMinutes,
+                          @Value("${ocr.cache.db.enabled:true}") boolean dbEnabled,
+                          @Value("${ocr.cache.db.ttl-days:30}") long dbTtlDays) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.dbEnabled = dbEnabled;
+        this.dbTtl = Duration.ofDays(dbTtlDays);
+
+        this.memoryHits = Counter.builder("ocr.cache.requests").tag("result", "hit").tag("tier", "memory").register(meterRegistry);
+        this.dbHits = Counter.builder("ocr.cache.requests").tag("result", "hit").tag("tier", "db").register(meterRegistry);
+        this.misses = Counter.builder("ocr.cache.requests").tag("result", "miss").tag("tier", "none").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("ocr.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("ocr.cache.evictions").tag("cause", "expired").register(meterRegistry);
+
+        this.memory = new TtlLruCache<>(maxEntries, Duration.ofMinutes(memoryTtlMinutes).toMillis(),
+                cause -> (cause == TtlLruCache.RemovalCause.SIZE ? sizeEvictions : expiredEvictions).increment());
+        Gauge.builder("ocr.cache.memory.size", memory, TtlLruCache::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** 이미지 바이트의 SHA-256(hex). ByteString 내부 버퍼를 그대로 읽어 복사하지 않는다. */
+    public String key(ByteString imageBytes) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (ByteBuffer buf : imageBytes.asReadOnlyByteBufferList()) md.update(buf);
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 을 사용할 수 없습니다.", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) return Optional.empty();
+
+        String text = memory.get(key);
+        if (text != null) {
+            memoryHits.increment();
+            return Optional.of(text);
+        }
+
+        if (dbEnabled) {
+            try {
+                Optional<OcrResultCacheEntry> row = repository.findById(key);
+                if (row.isPresent()) {
+                    OcrResultCacheEntry e = row.get();
+                    if (e.getCreatedAt().plus(dbTtl).isAfter(LocalDateTime.now())) {
+                        memory.put(key, e.getText());  // 1차로 승격
+                        dbHits.increment();
+                        return Optional.of(e.getText());
+                    }
+                    repository.deleteById(key);
+                    expiredEvictions.increment();
+                }
+            } catch (DataAccessException e) {
+                // 캐시 장애가 OCR 자체를 막으면 안 된다 → miss 로 처리
+                log.warn("OCR 캐시 조회 실패(DB): {}", e.getMessage());
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, String text) {
+        if (!enabled || text == null) return;
+        memory.put(key, text);
+
+        if (dbEnabled) {
+            try {
+                repository.save(OcrResultCacheEntry.builder()
+                        .imageHash(key)
+                        .text(text)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            } catch (DataAccessException e) {
+                log.warn("OCR 캐시 저장 실패(DB): {}", e.getMessage());
+            }
+        }
+    }
+
+    /** 조회 때만 지우면 다시 안 올라오는 이미지의 행이 계속 쌓인다 → 주기적으로 TTL 지난 행 삭제 */
+    @Scheduled(initialDelayString = "${ocr.cache.db.sweep-ms:3600000}", fixedDelayString = "${ocr.cache.db.sweep-ms:3600000}")
+    public void purgeExpired() {
+        if (!enabled || !dbEnabled) return;
+        try {
+            int n = repository.deleteCreatedBefore(LocalDateTime.now().minus(dbTtl));
+            if (n > 0) {
+                expiredEvictions.increment(n);
+                log.info("만료된 OCR 캐시 {}건 삭제", n);
+            }
+        } catch (DataAccessException e) {
+            log.warn("OCR 캐시 정리 실패: {}", e.getMessage());
+        }
+    }
+}
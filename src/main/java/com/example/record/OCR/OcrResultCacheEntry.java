@@ -0,0 +1,28 @@
+// OcrResultCacheEntry: 이미지 SHA-256 → Vision fullTextAnnotation 원문을 저장하는 OCR 결과 캐시(2차, 영구) 엔티티입니다.
+
+package com.example.record.OCR;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ocr_result_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OcrResultCacheEntry {
+
+    @Id
+    @Column(name = "image_hash", length = 64)
+    private String imageHash; // 원본 이미지 바이트의 SHA-256(hex)
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String text; // Vision fullTextAnnotation 원문
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt; // 저장 시각(TTL 판단 기준)
+}
@@ -0,0 +1,19 @@
+// OcrResultCacheRepository: OCR 결과 캐시(ocr_result_cache) 테이블에 접근하는 JPA 리포지토리입니다.
+
+package com.example.record.OCR;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface OcrResultCacheRepository extends JpaRepository<OcrResultCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    @Query("delete from OcrResultCacheEntry e where e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
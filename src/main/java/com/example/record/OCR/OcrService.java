@@ -2,47 +2,77 @@ package com.example.record.OCR;
 
 import com.google.cloud.vision.v1.*;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Optional;
 
 @Service
+@RequiredArgsConstructor
 public class OcrService {
 
+    private final VisionBatchDispatcher visionDispatcher;  // 공유 Vision 클라이언트 + 마이크로 배칭
+    private final OcrResultCache resultCache;              // 이미지 해시 기반 결과 캐시(메모리 + DB)
+    private final ImagePreprocessor preprocessor;          // 축소/회전 보정/재압축
+
     public String extractTextFromImage(File imageFile) throws IOException {
-        try (ImageAnnotatorClient vision = ImageAnnotatorClient.create();
-             FileInputStream fis = new FileInputStream(imageFile)) {
+        try (InputStream in = Files.newInputStream(imageFile.toPath())) {
+            return extractTextFromImage(in);
+        }
+    }
 
-            ByteString imgBytes = ByteString.readFrom(fis);
-            Image image = Image.newBuilder().setContent(imgBytes).build();
+    /** 업로드 스트림에서 바로 ByteString 을 만든다(임시 파일/중간 byte[] 없음). 스트림은 호출자가 닫는다. */
+    public String extractTextFromImage(InputStream in) throws IOException {
+        return extractTextFromImage(ByteString.readFrom(in));
+    }
 
-            Feature feature = Feature.newBuilder()
-                    .setType(Feature.Type.DOCUMENT_TEXT_DETECTION)
-                    .build();
+    /** 이미 메모리에 있는 바이트: 복사 없이 감싼다(호출 후 배열을 수정하지 말 것) */
+    public String extractTextFromImage(byte[] imageBytes) throws IOException {
+        return extractTextFromImage(UnsafeByteOperations.unsafeWrap(imageBytes));
+    }
 
-            ImageContext ctx = ImageContext.newBuilder()
-                    .addLanguageHints("ko")
-                    .addLanguageHints("en")
-                    .build();
+    public String extractTextFromImage(ByteString imgBytes) throws IOException {
+        if (!resultCache.isEnabled()) return annotate(preprocessor.process(imgBytes));
 
-            AnnotateImageRequest request = AnnotateImageRequest.newBuilder()
-                    .addFeatures(feature)
-                    .setImage(image)
-                    .setImageContext(ctx)
-                    .build();
+        // 같은 이미지는 Vision 을 다시 부르지 않는다(키는 전처리 전 원본 기준)
+        String key = resultCache.key(imgBytes);
+        Optional<String> cached = resultCache.get(key);
+        if (cached.isPresent()) return cached.get();
 
-            BatchAnnotateImagesResponse response = vision.batchAnnotateImages(List.of(request));
-            if (response == null || response.getResponsesCount() == 0) return "";
+        String text = annotate(preprocessor.process(imgBytes));
+        resultCache.put(key, text);
+        return text;
+    }
 
-            AnnotateImageResponse r0 = response.getResponses(0);
-            if (r0.hasError()) throw new IOException("Vision API error: " + r0.getError().getMessage());
+    private String annotate(ByteString imgBytes) throws IOException {
+        Image image = Image.newBuilder().setContent(imgBytes).build();
 
-            return r0.hasFullTextAnnotation()
-                    ? r0.getFullTextAnnotation().getText()
-                    : "";
-        }
+        Feature feature = Feature.newBuilder()
+                .setType(Feature.Type.DOCUMENT_TEXT_DETECTION)
+                .build();
+
+        ImageContext ctx = ImageContext.newBuilder()
+                .addLanguageHints("ko")
+                .addLanguageHints("en")
+                .build();
+
+        AnnotateImageRequest request = AnnotateImageRequest.newBuilder()
+                .addFeatures(feature)
+                .setImage(image)
+                .setImageContext(ctx)
+                .build();
+
+        AnnotateImageResponse r0 = visionDispatcher.annotate(request);
+        if (r0 == null) return "";
+        if (r0.hasError()) throw new IOException("Vision API error: " + r0.getError().getMessage());
+
+        return r0.hasFullTextAnnotation()
+                ? r0.getFullTextAnnotation().getText()
+                : "";
     }
 }
@@ -0,0 +1,200 @@
+package com.example.record.OCR;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * OCR 원문 → 공연 정보 필드 추출.
+ * 단계형(tiered) 모드에서는 로컬 추출기를 먼저 돌리고, 필수 필드가 없거나 모호할 때만
+ * 그 필드들만 GPT 에 물어본다. 깨끗한 모바일 티켓 캡처는 GPT 왕복(1~3초) 없이 끝난다.
+ * GPT 를 부르게 되면 필수가 아닌 필드 중 비어 있는 것도 같은 요청에 함께 묻는다(추가 왕복 없음).
+ * 기본 필수 필드는 응답 필드 전부라 artist/seat 가 사전에 없어도 GPT 로 채운다.
+ * required-fields 를 좁히면 그 밖의 필드는 로컬에서 못 찾는 한 비어 나갈 수 있다(지연/비용 ↔ 완성도).
+ */
+@Service
+public class TicketExtractionService {
+
+    /** /ocr/structured 응답 필드 */
+    public static final List<String> STRUCTURED_FIELDS = List.of("title", "date", "time", "venue", "artist");
+    /** /ocr/extract 응답 필드 */
+    public static final List<String> COMPACT_FIELDS = List.of("title", "date", "time", "venue", "artist", "seat");
+
+    private static final Map<String, String> FIELD_HINTS = Map.of(
+            "title", "title(공연 제목)",
+            "date", "date(YYYY-MM-DD)",
+            "time", "time(24h HH:mm)",
+            "venue", "venue(공연 장소)",
+            "artist", "artist(아티스트/출연진)",
+            "seat", "seat(좌석, 예: 1층 A구역 14열 3번)"
+    );
+
+    private final GptClient gptClient;
+    private final TicketFieldExtractor fieldExtractor;
+    private final ObjectMapper om;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean tiered;
+    private final Set<String> requiredFields;
+    private final double minConfidence;
+
+    public TicketExtractionService(GptClient gptClient,
+                                   TicketFieldExtractor fieldExtractor,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${ocr.extract.tiered:true}") boolean tiered,
+                                   @Value("${ocr.extract.required-fields:title,date,time,venue,artist,seat}") String requiredFields,
+                                   @Value("${ocr.extract.min-confidence:0.8}") double minConfidence) {
+        this.gptClient = gptClient;
+        this.fieldExtractor = fieldExtractor;
+        this.om = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.tiered = tiered;
+        this.requiredFields = Arrays.stream(requiredFields.split(","))
+                .map(String::trim).filter(s -> !s.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        this.minConfidence = minConfidence;
+    }
+
+    /** /ocr/structured 용: 5개 키를 모두 채운 DTO(없으면 "") */
+    public PerformanceInfo extractPerformanceInfo(String ocrText) {
+        Map<String, String> f = extract(ocrText, STRUCTURED_FIELDS, "structured");
+        return new PerformanceInfo(
+                f.getOrDefault("title", ""),
+                f.getOrDefault("date", ""),
+                f.getOrDefault("time", ""),
+                f.getOrDefault("venue", ""),
+                f.getOrDefault("artist", "")
+        );
+    }
+
+    /** /ocr/extract 용: 확실한 키만 담은 Map */
+    public Map<String, String> extractFields(String ocrText) {
+        return extract(ocrText, COMPACT_FIELDS, "extract");
+    }
+
+    private Map<String, String> extract(String ocrText, List<String> fields, String endpoint) {
+        String text = ocrText == null ? "" : ocrText;
+        TicketFieldExtractor.Result local = fieldExtractor.extractWithConfidence(text);
+
+        Map<String, String> result = new LinkedHashMap<>();
+        String tier;
+
+        if (!tiered) {
+            // 기존 방식: GPT 로 전체 필드 추출 → 로컬 결과로 빈칸 보완
+            result.putAll(askGpt(text, fields));
+            local.values().forEach((k, v) -> { if (fields.contains(k)) result.putIfAbsent(k, v); });
+            tier = "gpt-full";
+        } else {
+            // 1) 로컬 결과 채택
+            local.values().forEach((k, v) -> { if (fields.contains(k)) result.put(k, v); });
+
+            // 2) 필수 필드 중 없거나 신뢰도가 낮은 것이 있을 때만 GPT 에 요청
+            //    (그때는 어차피 왕복하므로 불확실한 선택 필드도 함께 묻는다)
+            List<String> uncertain = fields.stream()
+                    .filter(k -> local.confidenceOf(k) < minConfidence)
+                    .toList();
+            boolean needsGpt = uncertain.stream().anyMatch(requiredFields::contains);
+
+            if (!needsGpt) {
+                tier = "local";
+            } else {
+                Map<String, String> ai = askGpt(text, uncertain);
+                result.putAll(ai);  // 모호했던 로컬 값은 GPT 값으로 교체
+                tier = "gpt-partial";
+            }
+        }
+
+        Counter.builder("ocr.extract.tier")
+                .tag("tier", tier)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+
+        normalize(result);
+        return result;
+    }
+
+    /** 요청한 필드만 JSON 으로 받아온다. GPT 실패/비정상 응답이면 빈 Map */
+    private Map<String, String> askGpt(String text, List<String> fields) {
+        String keys = fields.stream().map(k -> FIELD_HINTS.getOrDefault(k, k)).collect(Collectors.joining(", "));
+        String prompt = """
+            아래 OCR 텍스트에서 다음 필드만 JSON으로 추출하세요.
+            키: %s
+
+            규칙:
+            - 일반적인 표기 관례에 따라 합리적 정규화 허용
+              (예: "2022년 10월 15일(토) 6:00 pm" → date:"2022-10-15", time:"18:00")
+            - 확실한 값만 포함(없거나 모호하면 **키 자체를 생략**)
+            - 좌석 오인식 교정 허용: "14일" → "14열"
+            - 반드시 순수 JSON만 출력하세요. (설명/코드블록 금지)
+
+            OCR 텍스트:
+            %s
+        """.formatted(keys, text);
+
+        String json = gptClient.getStructuredJsonFromPrompt(prompt);
+        String cleaned = stripCodeFence(json).trim();
+
+        Map<String, String> out = new LinkedHashMap<>();
+        try {
+            Map<String, Object> ai = om.readValue(cleaned, new TypeReference<LinkedHashMap<String, Object>>() {});
+            if (ai != null && ai.containsKey("error")) {
+                // GPT 실패/서킷 열림 → 로컬 추출 결과만으로 응답
+                Counter.builder("ocr.extract.gpt.fallback").register(meterRegistry).increment();
+                return out;
+            }
+            if (ai != null) {
+                ai.forEach((k, v) -> {
+                    if (k != null && fields.contains(k) && v != null) {
+                        String val = String.valueOf(v).trim();
+                        if (!val.isEmpty() && !val.equalsIgnoreCase("null") && !val.equalsIgnoreCase("unknown")) {
+                            out.put(k, val);
+                        }
+                    }
+                });
+            }
+        } catch (Exception ignore) {
+            // GPT가 비정상 응답이면 로컬 결과만 사용
+        }
+        return out;
+    }
+
+    /** GPT 값 포함 최종 후처리(날짜/시간 형식, 좌석 오인식) */
+    private void normalize(Map<String, String> result) {
+        if (result.containsKey("seat")) {
+            result.put("seat", fieldExtractor.fixSeatHangulMisread(result.get("seat")));
+        }
+        if (result.containsKey("time")) {
+            String t24 = fieldExtractor.to24h(result.get("time"));
+            if (t24 != null) result.put("time", t24);
+        }
+        if (result.containsKey("date")) {
+            String iso = fieldExtractor.toIsoDate(result.get("date"));
+            if (iso != null) result.put("date", iso);
+        }
+    }
+
+    private static String stripCodeFence(String s) {
+        if (s == null) return "";
+        String t = s.trim();
+        if (t.startsWith("```")) {
+            int idx = t.indexOf('\n');
+            if (idx > 0) t = t.substring(idx + 1);
+            int end = t.lastIndexOf("```");
+            if (end >= 0) t = t.substring(0, end);
+        }
+        return t;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.record.OCR;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OCR 원문에서 title/date/time/venue/artist/seat 를 로컬 규칙으로 뽑아내는 추출기.
+ * 패턴은 모두 클래스 로딩 시 한 번만 컴파일하고, 본문은 공백 정규화 1회 + 통합 정규식 1회 스캔으로 처리한다.
+ * 상태가 없으므로(사전은 불변 스냅샷) 여러 요청 스레드에서 동시에 써도 안전하다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketFieldExtractor {
+
+    /**
+     * 날짜/좌석/시간을 한 번의 find() 루프로 훑는 통합 패턴(같은 위치에서는 앞쪽 대안이 우선).
+     * 공연장/아티스트/투어명은 Gazetteer(사전)가 담당하고, 여기서는 사전에 없는 "예술의전당 ○○" 만 본다.
+     */
+    private static final Pattern FIELDS = Pattern.compile(
+            "(?<date>(20\\d{2})[.년\\-\\s/]*(\\d{1,2})[.월\\-\\s/]*(\\d{1,2})\\s*일?)"
+                    + "|(?<seat>\\d+\\s*층[^\\n]*?구역[^\\n]*?\\d+\\s*[일열]\\s*\\d+\\s*번)"
+                    + "|(?<venue>예술의전당\\s*[^\\s]+)"
+                    + "|(?<time>(?:(오전|오후)\\s*)?(?<!\\d)(\\d{1,2})(?!\\d)(?::(\\d{2})|\\s*시(?:\\s*(\\d{1,2})\\s*분)?)?(?:\\s*((?i:am|pm)\\b))?)"
+    );
+    // FIELDS 내 번호 그룹(이름 그룹도 번호를 차지한다)
+    private static final int DATE_Y = 2, DATE_M = 3, DATE_D = 4;
+    private static final int TIME_AP_KO = 8, TIME_H = 9, TIME_M_COLON = 10, TIME_M_KO = 11, TIME_AP_EN = 12;
+
+    private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern LOOSE_DATE = Pattern.compile("(20\\d{2})[.년\\-/\\s]*(\\d{1,2})[.월\\-/\\s]*(\\d{1,2})");
+    private static final Pattern AP_PREFIX = Pattern.compile("(?i)\\b(AM|PM)\\b\\s*(\\d{1,2})(?::(\\d{2}))?");
+    private static final Pattern AP_SUFFIX = Pattern.compile("(\\d{1,2}):(\\d{2})\\s*(?i)(AM|PM)");
+    private static final Pattern HH_MM = Pattern.compile("(\\d{1,2}):(\\d{2})");
+    private static final Pattern SEAT_MISREAD = Pattern.compile("(\\d+)\\s*일\\s*(\\d+)\\s*번");
+
+    private final Gazetteer gazetteer;  // 공연장/아티스트/투어명 사전(Aho-Corasick)
+
+    /** 필드별 신뢰도 기준값 */
+    static final double CONF_STRONG = 0.95;      // 연-월-일 완전 일치, 사전(Gazetteer) 일치
+    static final double CONF_MARKED = 0.9;       // 오전/오후·am/pm·HH:mm 표기가 있는 시간
+    static final double CONF_PARTIAL = 0.7;      // 장소 접두어만 일치(예: "예술의전당 ○○")
+    static final double CONF_AMBIGUOUS = 0.5;    // 서로 다른 후보가 여러 개(예매일/공연일 등)
+
+    /** 추출 결과: 값 + 필드별 신뢰도(0~1) */
+    public record Result(Map<String, String> values, Map<String, Double> confidence) {
+        public double confidenceOf(String field) {
+            return confidence.getOrDefault(field, 0.0);
+        }
+    }
+
+    /** OCR 원문 → 찾은 필드만 담은 Map(키: title/date/time/venue/artist/seat) */
+    public Map<String, String> extract(String src) {
+        return extractWithConfidence(src).values();
+    }
+
+    /** 값과 함께 필드별 신뢰도를 돌려준다(GPT 호출 여부 판단용) */
+    public Result extractWithConfidence(String src) {
+        Map<String, String> m = new LinkedHashMap<>();
+        Map<String, Double> conf = new HashMap<>();
+        if (src == null || src.isEmpty()) return new Result(m, conf);
+
+        String text = normalizeWhitespace(src);
+
+        Matcher x = FIELDS.matcher(text);
+        while (x.find()) {
+            if (x.start("date") >= 0) {
+                String d = isoDate(x.group(DATE_Y), x.group(DATE_M), x.group(DATE_D));
+                if (d != null) put(m, conf, "date", d, CONF_STRONG);
+            } else if (x.start("seat") >= 0) {
+                put(m, conf, "seat", fixSeatHangulMisread(x.group("seat")), CONF_MARKED);
+            } else if (x.start("venue") >= 0) {
+                put(m, conf, "venue", x.group("venue"), CONF_PARTIAL);
+            } else {
+                String apKo = x.group(TIME_AP_KO);
+                String apEn = x.group(TIME_AP_EN);
+                String mm = x.group(TIME_M_COLON) != null ? x.group(TIME_M_COLON) : x.group(TIME_M_KO);
+                boolean marked = apKo != null || apEn != null || mm != null || x.group("time").contains("시");
+
+                // 표기 없는 숫자("10월", "7열", "3층"의 숫자)는 시간으로 보지 않는다
+                if (!marked) continue;
+                String ap = apKo != null ? ("오후".equals(apKo) ? "PM" : "AM") : apEn;
+                String t24 = hhmm(x.group(TIME_H), mm, ap);
+                if (t24 != null) put(m, conf, "time", t24, CONF_MARKED);
+            }
+        }
+
+        // 사전 일치는 본문 길이에 비례하는 1회 스캔(사전 크기와 무관)
+        Gazetteer.Hits hits = gazetteer.find(text);
+        if (hits.venue() != null) {
+            m.put("venue", hits.venue());
+            conf.put("venue", CONF_STRONG);
+        }
+        if (hits.artist() != null) put(m, conf, "artist", hits.artist(), CONF_STRONG);
+        if (hits.title() != null) put(m, conf, "title", hits.title(), CONF_STRONG);
+        return new Result(m, conf);
+    }
+
+    /** 첫 후보를 채택하고, 다른 값이 또 나오면 모호한 것으로 보고 신뢰도를 낮춘다 */
+    private static void put(Map<String, String> m, Map<String, Double> conf, String key, String value, double c) {
+        String prev = m.putIfAbsent(key, value);
+        if (prev == null) {
+            conf.put(key, c);
+        } else if (!prev.equals(value)) {
+            conf.put(key, Math.min(conf.get(key), CONF_AMBIGUOUS));
+        }
+    }
+
+    /** "2022년 10월 15일" 등 → "2022-10-15". 인식 못 하면 입력 그대로 */
+    public String toIsoDate(String in) {
+        if (in == null || in.isBlank()) return in;
+        if (ISO_DATE.matcher(in).matches()) return in;
+        Matcher m = LOOSE_DATE.matcher(in);
+        if (m.find()) {
+            String iso = isoDate(m.group(1), m.group(2), m.group(3));
+            if (iso != null) return iso;
+        }
+        return in;
+    }
+
+    /** "오후 6시", "6:00 pm", "PM 6:30" 등 → "18:00". 인식 못 하면 입력 그대로 */
+    public String to24h(String in) {
+        if (in == null || in.isBlank()) return in;
+        // 리터럴 치환은 String.replace 로(정규식 컴파일 없음)
+        String s = in.trim().replace("오전", "AM").replace("오후", "PM").replace("시", ":00");
+
+        Matcher m = AP_PREFIX.matcher(s);
+        if (m.find()) {
+            String t = hhmm(m.group(2), m.group(3), m.group(1));
+            if (t != null) return t;
+        }
+        Matcher m2 = AP_SUFFIX.matcher(s);
+        if (m2.find()) {
+            String t = hhmm(m2.group(1), m2.group(2), m2.group(3));
+            if (t != null) return t;
+        }
+        Matcher m3 = HH_MM.matcher(s);
+        if (m3.matches()) {
+            String t = hhmm(m3.group(1), m3.group(2), null);
+            if (t != null) return t;
+        }
+        return in;
+    }
+
+    /** 좌석 오인식 교정: "14일 3번" → "14열 3번" */
+    public String fixSeatHangulMisread(String s) {
+        if (s == null) return null;
+        return SEAT_MISREAD.matcher(s).replaceAll("$1열 $2번");
+    }
+
+    // ────────── 내부 유틸 ──────────
+
+    /** \r, \n, 연속 공백을 한 칸으로 합치고 앞뒤 공백 제거(문자열 1회 순회) */
+    static String normalizeWhitespace(String src) {
+        StringBuilder sb = new StringBuilder(src.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < src.length(); i++) {
+            char c = src.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) sb.append(' ');
+                sb.append(c);
+                pendingSpace = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String isoDate(String y, String mo, String d) {
+        int month = Integer.parseInt(mo);
+        int day = Integer.parseInt(d);
+        if (month < 1 || month > 12 || day < 1 || day > 31) return null;
+        return y + '-' + pad2(month) + '-' + pad2(day);
+    }
+
+    private static String hhmm(String h, String m, String ap) {
+        int hh = Integer.parseInt(h);
+        int mm = m == null ? 0 : Integer.parseInt(m);
+        if (ap != null) {
+            boolean pm = ap.equalsIgnoreCase("PM");
+            if (pm && hh < 12) hh += 12;
+            if (!pm && hh == 12) hh = 0;
+        }
+        if (hh > 23 || mm > 59) return null;
+        return pad2(hh) + ':' + pad2(mm);
+    }
+
+    private static String pad2(int v) {
+        return v < 10 ? "0" + v : Integer.toString(v);
+    }
+}
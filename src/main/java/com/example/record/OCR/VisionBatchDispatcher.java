@@ -0,0 +1,198 @@
+package com.example.record.OCR;
+
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.example.record.resilience.Resilience;
+import com.example.record.resilience.ResilientEndpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 동시에 들어온 OCR 요청을 짧은 시간창(window) 동안 모아 batchAnnotateImages 한 번으로 보내고,
+ * 각 호출자에게 자기 몫의 AnnotateImageResponse 를 돌려준다.
+ * RPC 는 "vision" ResilientEndpoint 를 거친다(적응형 타임아웃, UNAVAILABLE 등만 재시도, 서킷 브레이커).
+ * ocr.vision.timeout-ms 는 호출자가 재시도까지 포함해 기다리는 최대 시간이다.
+ * 배치는 장수(최대 16)와 함께 요청 바이트 합(ocr.vision.batch.max-bytes)으로도 자른다: 큰 사진 16장이 요청 크기 한도를 넘어
+ * 배치 전체가 실패하지 않도록.
+ */
+@Component
+public class VisionBatchDispatcher {
+
+    /** Vision batchAnnotateImages 한 번에 보낼 수 있는 최대 이미지 수 */
+    static final int VISION_MAX_BATCH = 16;
+
+    private final ObjectProvider<ImageAnnotatorClient> visionProvider;
+    private final ResilientEndpoint vision;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long timeoutMs;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService rpcExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running = true;
+    private Thread collector;
+
+    private final DistributionSummary batchSize;
+    private final DistributionSummary batchBytes;
+    private final DistributionSummary fillRatio;
+    private final Counter rpcCount;
+    private final Timer rpcTimer;
+
+    public VisionBatchDispatcher(ObjectProvider<ImageAnnotatorClient> visionProvider,
+                                 Resilience resilience,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${ocr.vision.batch.window-ms:20}") long windowMs,
+                                 @Value("${ocr.vision.batch.max-size:16}") int maxBatchSize,
+                                 @Value("${ocr.vision.batch.max-bytes:8388608}") long maxBatchBytes,
+                                 @Value("${ocr.vision.timeout-ms:30000}") long timeoutMs) {
+        this.visionProvider = visionProvider;
+        this.vision = resilience.endpoint(Resilience.VISION);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMs));
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, VISION_MAX_BATCH));
+        this.maxBatchBytes = Math.max(1, maxBatchBytes);
+        this.timeoutMs = timeoutMs;
+
+        this.batchSize = DistributionSummary.builder("ocr.vision.batch.size")
+                .description("batchAnnotateImages 한 번에 담긴 이미지 수")
+                .register(meterRegistry);
+        this.batchBytes = DistributionSummary.builder("ocr.vision.batch.bytes")
+                .description("batchAnnotateImages 한 번에 담긴 요청 바이트 합")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.fillRatio = DistributionSummary.builder("ocr.vision.batch.fill.ratio")
+                .description("배치 크기 / 최대 배치 크기")
+                .register(meterRegistry);
+        this.rpcCount = Counter.builder("ocr.vision.rpc")
+                .description("Vision 으로 나간 batchAnnotateImages 호출 수")
+                .register(meterRegistry);
+        this.rpcTimer = Timer.builder("ocr.vision.rpc.latency")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        collector = Thread.ofPlatform().name("vision-batch-collector").daemon().start(this::collectLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (collector != null) collector.interrupt();
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(p -> p.future().completeExceptionally(new IOException("OCR 디스패처가 종료되었습니다.")));
+        rpcExecutor.shutdown();
+    }
+
+    /** 요청 1건을 배치 큐에 넣고, 해당 요청의 응답이 올 때까지 기다린다. */
+    public AnnotateImageResponse annotate(AnnotateImageRequest request) throws IOException {
+        Pending pending = new Pending(request, request.getSerializedSize(), new CompletableFuture<>());
+        if (windowNanos == 0 || maxBatchSize == 1) {
+            // 배치 비활성: 호출 스레드에서 바로 1건짜리 배치 전송
+            send(List.of(pending));
+        } else {
+            queue.add(pending);
+        }
+
+        try {
+            return pending.future().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("Vision API 호출 실패: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new IOException("Vision API 응답 시간 초과(" + timeoutMs + "ms)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("OCR 요청이 중단되었습니다.", e);
+        }
+    }
+
+    private void collectLoop() {
+        Pending carry = null;  // 바이트 한도로 앞 배치에 못 들어간 요청 → 다음 배치의 첫 요청
+        while (running) {
+            try {
+                Pending first = carry != null ? carry : queue.take();
+                carry = null;
+                List<Pending> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long bytes = first.bytes();
+
+                // 첫 요청 기준으로 window 동안만 모은다(최대 maxBatchSize 건, maxBatchBytes 바이트)
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    if (bytes + next.bytes() > maxBatchBytes) {
+                        carry = next;
+                        break;
+                    }
+                    batch.add(next);
+                    bytes += next.bytes();
+                }
+
+                // RPC 는 별도 스레드에서: 응답을 기다리는 동안 다음 배치를 계속 모은다
+                rpcExecutor.execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        int n = batch.size();
+        batchSize.record(n);
+        batchBytes.record(batch.stream().mapToLong(Pending::bytes).sum());
+        fillRatio.record((double) n / maxBatchSize);
+        rpcCount.increment();
+
+        try {
+            BatchAnnotateImagesRequest request = BatchAnnotateImagesRequest.newBuilder()
+                    .addAllRequests(batch.stream().map(Pending::request).toList())
+                    .build();
+            BatchAnnotateImagesResponse response = rpcTimer.recordCallable(() -> vision.call(timeout ->
+                    ResilientEndpoint.await(
+                            visionProvider.getObject().batchAnnotateImagesCallable().futureCall(request), timeout)));
+
+            int received = response == null ? 0 : response.getResponsesCount();
+            for (int i = 0; i < n; i++) {
+                if (i < received) {
+                    batch.get(i).future().complete(response.getResponses(i));
+                } else {
+                    batch.get(i).future().completeExceptionally(new IOException("Vision 응답이 누락되었습니다."));
+                }
+            }
+        } catch (Exception e) {
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    /** bytes: 직렬화 크기(배치 바이트 한도 계산용, 한 번만 잰다) */
+    private record Pending(AnnotateImageRequest request, long bytes, CompletableFuture<AnnotateImageResponse> future) {}
+}
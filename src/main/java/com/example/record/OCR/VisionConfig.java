@@ -0,0 +1,22 @@
+package com.example.record.OCR;
+
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.io.IOException;
+
+@Configuration
+public class VisionConfig {
+
+    /**
+     * 앱 전체에서 하나만 쓰는 Vision 클라이언트.
+     * gRPC 채널/TLS/인증 로딩은 첫 OCR 요청 때 한 번만 수행하고, 종료 시 close() 한다.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public ImageAnnotatorClient imageAnnotatorClient() throws IOException {
+        return ImageAnnotatorClient.create();
+    }
+}
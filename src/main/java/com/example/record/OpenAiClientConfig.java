@@ -1,24 +1,73 @@
 package com.example.record;
 
 import java.time.Duration;
+import com.example.record.resilience.Resilience;
+import com.example.record.resilience.ResilienceProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+/**
+ * OpenAI 호출용 공용 HTTP 클라이언트.
+ * 커넥션 풀 하나(keep-alive, 최대 연결/대기 제한, 유휴 연결 정리)를 모든 호출이 공유해
+ * 요청마다 TCP/TLS 핸드셰이크를 다시 하지 않는다. 풀 지표는 reactor.netty.connection.provider.* 로 노출된다.
+ * JSON 코덱은 앱 공용 ObjectMapper(JacksonConfig)를 쓴다.
+ * 호출별 마감 시간은 ResilientEndpoint(적응형 타임아웃)가 정한다. Netty 응답 타임아웃은 그보다 늦게 터지는
+ * 안전망일 뿐이라 resilience.endpoints.openai-* 의 가장 큰 max-timeout-ms 에 여유를 더해 잡는다.
+ */
 @Configuration
 public class OpenAiClientConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAiConnectionProvider(
+            @Value("${openai.http.max-connections:50}") int maxConnections,
+            @Value("${openai.http.pending-acquire-max:200}") int pendingAcquireMax,
+            @Value("${openai.http.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${openai.http.max-idle-ms:30000}") long maxIdleMs,
+            @Value("${openai.http.max-life-ms:300000}") long maxLifeMs) {
+        return ConnectionProvider.builder("openai")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))     // 서버가 먼저 끊기 전에 정리
+                .maxLifeTime(Duration.ofMillis(maxLifeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                .metrics(true)                                  // active/idle/pending 게이지
+                .build();
+    }
+
     @Bean
-    public WebClient openAiWebClient(@Value("${openai.api.key}") String apiKey) {
-        HttpClient httpClient = HttpClient.create()
-                .responseTimeout(Duration.ofSeconds(30));
+    public WebClient openAiWebClient(ConnectionProvider openAiConnectionProvider,
+                                     ObjectMapper objectMapper,
+                                     @Value("${openai.api.key}") String apiKey,
+                                     ResilienceProperties resilience,
+                                     @Value("${openai.http.connect-timeout-ms:5000}") int connectTimeoutMs,
+                                     @Value("${openai.http.response-timeout-grace-ms:5000}") long responseTimeoutGraceMs) {
+        long responseTimeoutMs = responseTimeoutMs(resilience, responseTimeoutGraceMs);
+        HttpClient httpClient = HttpClient.create(openAiConnectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)  // ALPN 으로 가능하면 HTTP/2
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
 
         ExchangeStrategies strategies = ExchangeStrategies.builder()
-                .codecs(c -> c.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                .codecs(c -> {
+                    c.defaultCodecs().maxInMemorySize(8 * 1024 * 1024);
+                    c.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper, MediaType.APPLICATION_JSON));
+                    c.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper, MediaType.APPLICATION_JSON));
+                })
                 .build();
 
         return WebClient.builder()
@@ -29,4 +78,17 @@ public class OpenAiClientConfig {
                 .exchangeStrategies(strategies)
                 .build();
     }
+
+    /**
+     * 가장 긴 OpenAI 지점 마감(max-timeout-ms) + 여유. 이보다 짧으면 Netty ReadTimeout 이 먼저 터져
+     * (재시도 가능한 WebClientRequestException) 느린 이미지 생성 같은 호출이 마감 전에 끊기고 다시 과금된다.
+     */
+    static long responseTimeoutMs(ResilienceProperties resilience, long graceMs) {
+        long max = Math.max(resilience.policy(Resilience.OPENAI_CHAT).getMaxTimeoutMs(),
+                resilience.policy(Resilience.OPENAI_IMAGES).getMaxTimeoutMs());
+        for (var e : resilience.getEndpoints().entrySet()) {
+            if (e.getKey().startsWith("openai")) max = Math.max(max, e.getValue().getMaxTimeoutMs());
+        }
+        return max + Math.max(0, graceMs);
+    }
 }
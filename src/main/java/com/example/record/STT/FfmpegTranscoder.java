@@ -0,0 +1,316 @@
+package com.example.record.STT;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ffmpeg 변환 실행기: 원본(stdin) → 16kHz mono s16le PCM(stdout).
+ * 동시에 도는 ffmpeg 는 slots 개(기본 코어 수, 프로세스당 1스레드)로 제한하고,
+ * 나머지는 queue-capacity 까지만 queue-timeout 동안 기다린다. 넘치면 RejectedExecutionException(컨트롤러가 429 + Retry-After).
+ * 작업마다 CPU 시간/벽시계 한도를 넘으면 프로세스를 강제 종료한다.
+ * MP4/M4A/MOV 중 moov(목차)가 mdat(본문) 뒤에 있는 파일(non-faststart)은 파이프로는 디먹싱할 수 없어
+ * 임시 파일에 받아 경로로 넘긴다. 그 외 포맷과 faststart MP4 는 그대로 stdin 파이프로 흘린다.
+ */
+@Slf4j
+@Component
+public class FfmpegTranscoder {
+
+    /** 변환 중인 PCM 을 읽는 쪽. 반환하면 변환 종료를 기다린다 */
+    @FunctionalInterface
+    public interface PcmReader<T> {
+        T read(InputStream pcm) throws Exception;
+    }
+
+    private static final int SAMPLE_RATE = VadSegmenter.SAMPLE_RATE;
+    private static final double BYTES_PER_SECOND = SAMPLE_RATE * 2.0;
+
+    /** 컨테이너 판별에 보는 앞부분. ftyp + (free/wide/uuid 몇 개) + moov 또는 mdat 헤더가 들어가는 크기 */
+    static final int SNIFF_BYTES = 64 * 1024;
+
+    private final String ffmpegPath;
+    private final int slotCount;
+    private final int queueCapacity;
+    private final long queueTimeoutMs;
+    private final long maxCpuMs;
+    private final long maxWallMs;
+
+    private final Semaphore slots;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ScheduledExecutorService watchdog;
+
+    private final Timer waitTimer;
+    private final Timer transcodeTimer;
+    private final DistributionSummary realtimeFactor;
+    private final MeterRegistry meterRegistry;
+
+    public FfmpegTranscoder(MeterRegistry meterRegistry,
+                            @Value("${stt.ffmpeg.path:ffmpeg}") String ffmpegPath,
+                            @Value("${stt.transcode.slots:0}") int slots,
+                            @Value("${stt.transcode.queue-capacity:16}") int queueCapacity,
+                            @Value("${stt.transcode.queue-timeout-ms:10000}") long queueTimeoutMs,
+                            @Value("${stt.transcode.max-cpu-seconds:120}") long maxCpuSeconds,
+                            @Value("${stt.transcode.max-wall-seconds:900}") long maxWallSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.ffmpegPath = ffmpegPath;
+        this.slotCount = slots > 0 ? slots : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.maxCpuMs = TimeUnit.SECONDS.toMillis(maxCpuSeconds);
+        this.maxWallMs = TimeUnit.SECONDS.toMillis(maxWallSeconds);
+        this.slots = new Semaphore(slotCount, true);
+
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ffmpeg-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("stt.transcode.queue.depth", waiting, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("stt.transcode.active", this.slots, s -> slotCount - s.availablePermits()).register(meterRegistry);
+        this.waitTimer = Timer.builder("stt.transcode.wait").register(meterRegistry);
+        this.transcodeTimer = Timer.builder("stt.transcode.time").register(meterRegistry);
+        // 오디오 길이 / 변환 시간: 1 이상이면 실시간보다 빠르다
+        this.realtimeFactor = DistributionSummary.builder("stt.transcode.realtime.factor").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * 슬롯을 받아 ffmpeg 를 띄우고, stdout PCM 을 reader 에 넘긴다. 슬롯을 못 받으면 RejectedExecutionException.
+     * 임시 파일이 필요한 입력은 슬롯을 받기 전에 디스크로 받는다(슬롯은 ffmpeg 프로세스가 도는 동안만 잡는다).
+     */
+    public <T> T transcode(InputStream audio, PcmReader<T> reader) throws Exception {
+        BufferedInputStream in = new BufferedInputStream(audio, SNIFF_BYTES);
+        in.mark(SNIFF_BYTES);
+        boolean seekable = needsSeekableInput(in.readNBytes(SNIFF_BYTES));
+        in.reset();
+
+        Path spool = seekable ? spool(in) : null;
+        try {
+            admit();
+        } catch (Exception e) {
+            if (spool != null) Files.deleteIfExists(spool);
+            throw e;
+        }
+        long start = System.nanoTime();
+        AtomicReference<String> killed = new AtomicReference<>();
+        Process p = null;
+        ScheduledFuture<?> guard = null;
+        try {
+            input(seekable ? "file" : "pipe").increment();
+            p = start(spool);
+            Process proc = p;
+            StringBuilder log = new StringBuilder();
+            InputStream stdin = spool != null ? InputStream.nullInputStream() : in;  // 파일 입력이면 stdin 은 바로 닫는다
+            Thread feeder = Thread.ofVirtual().name("ffmpeg-stdin").start(() -> feed(stdin, proc.getOutputStream()));
+            Thread drainer = Thread.ofVirtual().name("ffmpeg-stderr").start(() -> drain(proc.getErrorStream(), log));
+            guard = watchdog.scheduleAtFixedRate(() -> check(proc, start, killed), 500, 500, TimeUnit.MILLISECONDS);
+
+            CountingInputStream pcm = new CountingInputStream(p.getInputStream());
+            T result;
+            try (pcm) {
+                result = reader.read(pcm);
+            }
+
+            int exit = p.waitFor();
+            feeder.join();
+            drainer.join();
+            if (killed.get() != null) {
+                throw new RuntimeException("ffmpeg 강제 종료(" + killed.get() + " 한도 초과)");
+            }
+            if (exit != 0) throw new RuntimeException("ffmpeg 변환 실패(exit=" + exit + ")\n" + log);
+
+            long took = System.nanoTime() - start;
+            transcodeTimer.record(took, TimeUnit.NANOSECONDS);
+            if (took > 0) realtimeFactor.record((pcm.count / BYTES_PER_SECOND) / (took / 1e9));
+            return result;
+        } finally {
+            if (guard != null) guard.cancel(false);
+            if (p != null) p.destroyForcibly();
+            if (spool != null) Files.deleteIfExists(spool);
+            slots.release();
+        }
+    }
+
+    /**
+     * ISO BMFF(MP4/M4A/MOV) 이고 앞부분에서 moov 보다 mdat 가 먼저 나오면(또는 앞부분 안에서 moov 를 못 찾으면) true.
+     * 첫 박스가 ftyp 가 아니면 다른 컨테이너(ogg/webm/mp3/...)라 파이프로 충분하다.
+     */
+    static boolean needsSeekableInput(byte[] head) {
+        if (head.length < 8 || !"ftyp".equals(boxType(head, 0))) return false;
+        long offset = 0;
+        while (offset + 8 <= head.length) {
+            int at = (int) offset;
+            long size = ((head[at] & 0xFFL) << 24) | ((head[at + 1] & 0xFFL) << 16)
+                    | ((head[at + 2] & 0xFFL) << 8) | (head[at + 3] & 0xFFL);
+            String type = boxType(head, at);
+            if ("moov".equals(type)) return false;
+            if ("mdat".equals(type)) return true;
+            if (size == 1) {  // 64비트 largesize
+                if (at + 16 > head.length) return true;
+                size = 0;
+                for (int i = 8; i < 16; i++) size = (size << 8) | (head[at + i] & 0xFFL);
+            }
+            if (size < 8) return true;  // 0 = 파일 끝까지(마지막 박스) 또는 깨진 크기: 안전하게 파일로
+            offset += size;
+        }
+        return true;  // 앞부분 안에서 moov 를 못 만남
+    }
+
+    /** non-faststart MP4: 디먹서가 끝의 moov 를 먼저 읽어야 한다 → 디스크로 받아 경로로 넘긴다(힙은 버퍼 하나) */
+    private static Path spool(InputStream in) throws IOException {
+        Path file = Files.createTempFile("stt-", ".mp4");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private static String boxType(byte[] b, int at) {
+        return new String(b, at + 4, 4, StandardCharsets.ISO_8859_1);
+    }
+
+    private Counter input(String mode) {
+        return Counter.builder("stt.transcode.input").tag("mode", mode).register(meterRegistry);
+    }
+
+    /** 빈 슬롯이 없으면 대기열(상한 queueCapacity)에서 queueTimeoutMs 까지 기다린다 */
+    private void admit() throws InterruptedException {
+        if (slots.tryAcquire()) {
+            waitTimer.record(Duration.ZERO);
+            return;
+        }
+        if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            rejected("queue-full");
+            throw new RejectedExecutionException("변환 대기열이 가득 찼습니다.");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!slots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected("timeout");
+                throw new RejectedExecutionException("변환 대기 시간 초과");
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /** 벽시계/CPU 시간 한도 검사. 넘으면 강제 종료(읽는 쪽은 EOF 를 받고 transcode 가 예외로 끝난다) */
+    private void check(Process p, long start, AtomicReference<String> killed) {
+        if (!p.isAlive() || killed.get() != null) return;
+        String reason = null;
+        if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) > maxWallMs) {
+            reason = "wall";
+        } else {
+            long cpuMs = p.info().totalCpuDuration().map(Duration::toMillis).orElse(0L);
+            if (cpuMs > maxCpuMs) reason = "cpu";
+        }
+        if (reason != null && killed.compareAndSet(null, reason)) {
+            log.warn("ffmpeg 강제 종료: pid={}, reason={}", p.pid(), reason);
+            Counter.builder("stt.transcode.killed").tag("reason", reason).register(meterRegistry).increment();
+            p.destroyForcibly();
+        }
+    }
+
+    private void rejected(String reason) {
+        Counter.builder("stt.transcode.rejected").tag("reason", reason).register(meterRegistry).increment();
+    }
+
+    /**
+     * stdin(또는 spool 파일): 원본(컨테이너/코덱 자동 감지) → stdout: 16kHz mono s16le raw PCM.
+     * 1스레드 = 슬롯 하나 = 코어 하나
+     */
+    private Process start(Path spool) throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(
+                ffmpegPath,
+                "-hide_banner", "-loglevel", "error",
+                "-threads", "1",
+                "-i", spool != null ? spool.toAbsolutePath().toString() : "pipe:0",
+                "-ar", String.valueOf(SAMPLE_RATE),
+                "-ac", "1",
+                "-f", "s16le",
+                "pipe:1"
+        );
+        return pb.start();
+    }
+
+    /** 원본 → ffmpeg stdin. 다 쓰면 닫아 EOF 를 알린다(ffmpeg 가 먼저 끝나 파이프가 닫혀도 조용히 종료) */
+    private static void feed(InputStream audio, OutputStream stdin) {
+        try (OutputStream out = stdin) {
+            audio.transferTo(out);
+        } catch (IOException ignore) {
+            // ffmpeg 조기 종료 → exit code 로 보고된다
+        }
+    }
+
+    /** stderr 는 실패 시 메시지용으로 앞부분만 보관(파이프가 가득 차 ffmpeg 가 멈추지 않게 끝까지 읽는다) */
+    private static void drain(InputStream stderr, StringBuilder log) {
+        try (InputStream in = stderr) {
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                synchronized (log) {
+                    if (log.length() < 8192) log.append(new String(buf, 0, n, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException ignore) {
+            // 프로세스 종료
+        }
+    }
+
+    /** 읽은 PCM 바이트 수(= 오디오 길이) 집계 */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.record.STT;
+
+import java.util.List;
+
+public record GptAnalysisResponse(String summary, List<String> questions) {}
@@ -0,0 +1,4 @@
+package com.example.record.STT;
+
+/** 스트리밍 요약의 토큰 조각(SSE "delta" 이벤트) */
+public record GptDelta(String delta) {}
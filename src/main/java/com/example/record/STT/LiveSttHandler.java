@@ -0,0 +1,361 @@
+package com.example.record.STT;
+
+import com.example.record.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.gax.rpc.ClientStream;
+import com.google.api.gax.rpc.ResponseObserver;
+import com.google.api.gax.rpc.StreamController;
+import com.google.cloud.speech.v1.*;
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * /stt/live: 녹음 중인 음성을 받아 바로 Speech 스트리밍 인식으로 넘기고, 중간(partial)/확정(final) 결과를 돌려준다.
+ * <pre>
+ * 클라이언트 → 서버: 바이너리 프레임 = LINEAR16 mono PCM(sampleRate 쿼리, 기본 16000), 텍스트 "stop" = 종료
+ * 서버 → 클라이언트: LiveSttMessage JSON (partial | final | saved | error)
+ * </pre>
+ * 스트림 하나의 오디오 한도(약 5분)에 닿기 전에 새 스트림으로 갈아탄다.
+ * 종료(stop, 연결 끊김, 세션 한도, 오디오 유휴) 시 남은 확정 결과를 기다려 인증된 사용자의 Transcription 으로 저장한다.
+ * 세션 한도와 오디오 유휴는 프레임 도착과 무관하게 타이머로 검사한다(텍스트 프레임만 오가도 끝난다).
+ */
+@Slf4j
+@Component
+public class LiveSttHandler extends BinaryWebSocketHandler {
+
+    private static final String STATE = "liveStt";
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SpeechClient speechClient;        // 앱 전체 공용 채널(SpeechConfig)
+    private final TranscriptionRepository repo;
+    private final ObjectMapper objectMapper;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer finalizeTimer;              // stop → 마지막 확정 결과 + 저장
+    private final ScheduledExecutorService timers;  // 세션 한도/오디오 유휴 검사
+
+    @Value("${stt.live.language-code:ko-KR}")
+    private String languageCode;
+
+    @Value("${stt.live.max-stream-seconds:280}")
+    private int maxStreamSeconds;
+
+    @Value("${stt.live.max-session-seconds:1800}")
+    private int maxSessionSeconds;
+
+    /** 오디오 프레임 없이 이 시간이 지나면 저장 후 종료(컨테이너 유휴 한도는 텍스트 프레임에도 갱신된다) */
+    @Value("${stt.live.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    /** 종료 후 남은 확정 결과를 기다리는 한도 */
+    @Value("${stt.live.final-timeout-ms:5000}")
+    private long finalTimeoutMs;
+
+    /** 느린 클라이언트로의 전송이 gRPC 콜백 스레드를 붙잡지 않도록 하는 한도 */
+    @Value("${stt.live.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${stt.live.send-buffer-bytes:524288}")
+    private int sendBufferBytes;
+
+    public LiveSttHandler(SpeechClient speechClient, TranscriptionRepository repo,
+                          ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.speechClient = speechClient;
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.finalizeTimer = Timer.builder("stt.live.finalize").register(meterRegistry);
+        Gauge.builder("stt.live.sessions", active, AtomicInteger::get).register(meterRegistry);
+        this.timers = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stt-live-timer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timers.shutdownNow();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        User user = user(session);
+        if (user == null) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Unauthorized"));
+            return;
+        }
+        Integer rate = sampleRate(session.getUri());
+        if (rate == null) {
+            session.close(CloseStatus.BAD_DATA.withReason("sampleRate 는 8000~48000"));
+            return;
+        }
+
+        // gRPC 콜백 스레드와 요청 스레드가 동시에 보낼 수 있다 → 직렬화 + 전송 한도
+        WebSocketSession ws = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferBytes);
+        LiveSession live = new LiveSession(ws, user, rate);
+        session.getAttributes().put(STATE, live);
+        active.incrementAndGet();
+        live.start();
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        LiveSession live = (LiveSession) session.getAttributes().get(STATE);
+        if (live != null) live.audio(message.getPayload().duplicate());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        LiveSession live = (LiveSession) session.getAttributes().get(STATE);
+        if (live != null && "stop".equalsIgnoreCase(message.getPayload().trim())) live.finish();
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("/stt/live 전송 오류: {}", exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        LiveSession live = (LiveSession) session.getAttributes().remove(STATE);
+        if (live != null) live.finish();  // 끊겨도 받은 만큼은 저장
+    }
+
+    private static User user(WebSocketSession session) {
+        if (session.getPrincipal() instanceof Authentication auth && auth.getPrincipal() instanceof User u) return u;
+        return null;
+    }
+
+    private static Integer sampleRate(URI uri) {
+        if (uri == null) return 16000;
+        String v = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("sampleRate");
+        if (v == null) return 16000;
+        try {
+            int rate = Integer.parseInt(v);
+            return rate >= 8000 && rate <= 48000 ? rate : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ────────── 세션 하나 ──────────
+
+    private final class LiveSession {
+
+        private final WebSocketSession ws;
+        private final User user;
+        private final int sampleRate;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile long lastAudioAt = System.nanoTime();
+        private ScheduledFuture<?> sessionTimer;
+        private ScheduledFuture<?> idleTimer;
+
+        /**
+         * 스트림별 확정 문장(순서 보존). 스트림을 갈아타도 앞 스트림의 늦은 final 이 제자리에 들어간다.
+         * 목록과 각 StringBuilder 는 모두 이 LiveSession 의 모니터로 보호한다(open/onResponse/transcript).
+         */
+        private final List<StringBuilder> finals = new ArrayList<>();
+        private final List<CompletableFuture<Void>> streamsDone = new ArrayList<>();
+        private ClientStream<StreamingRecognizeRequest> stream;
+        private long streamBytes;
+
+        LiveSession(WebSocketSession ws, User user, int sampleRate) {
+            this.ws = ws;
+            this.user = user;
+            this.sampleRate = sampleRate;
+        }
+
+        synchronized void start() {
+            open();
+            sessionTimer = timers.schedule(() -> expire("세션 한도"), maxSessionSeconds, TimeUnit.SECONDS);
+            idleTimer = timers.schedule(this::checkIdle, idleTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void audio(ByteBuffer pcm) {
+            if (finished.get()) return;
+            lastAudioAt = System.nanoTime();
+            int len = pcm.remaining();
+            if (streamBytes + len > (long) maxStreamSeconds * sampleRate * 2) {
+                stream.closeSend();  // 닫힌 스트림은 남은 음성을 확정해 돌려준다
+                open();
+            }
+            stream.send(StreamingRecognizeRequest.newBuilder()
+                    .setAudioContent(ByteString.copyFrom(pcm))
+                    .build());
+            streamBytes += len;
+        }
+
+        /** 더 받지 않고, 남은 확정 결과를 기다렸다가 저장 → saved 전송 → 연결 종료 */
+        void finish() {
+            if (!finished.compareAndSet(false, true)) return;
+            long stopAt = System.nanoTime();
+            List<CompletableFuture<Void>> pending;
+            synchronized (this) {
+                if (sessionTimer != null) sessionTimer.cancel(false);
+                if (idleTimer != null) idleTimer.cancel(false);
+                if (stream != null) stream.closeSend();
+                pending = List.copyOf(streamsDone);
+            }
+
+            Thread.ofVirtual().name("stt-live-finish").start(() -> {
+                try {
+                    long deadline = stopAt + TimeUnit.MILLISECONDS.toNanos(finalTimeoutMs);
+                    for (CompletableFuture<Void> f : pending) {
+                        try {
+                            f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                        } catch (Exception ignore) {
+                            // 시간 초과/스트림 오류: 받은 만큼만 저장
+                        }
+                    }
+                    String text = transcript();
+                    if (!text.isEmpty()) {
+                        Transcription t = repo.save(Transcription.builder()
+                                .fileName("live-" + LocalDateTime.now().format(NAME))
+                                .resultText(text)
+                                .createdAt(LocalDateTime.now())
+                                .user(user)
+                                .build());
+                        send(LiveSttMessage.saved(t.getId(), text));
+                    }
+                    finalizeTimer.record(System.nanoTime() - stopAt, TimeUnit.NANOSECONDS);
+                } catch (Exception e) {
+                    log.warn("/stt/live 저장 실패: {}", e.getMessage());
+                    send(LiveSttMessage.error("저장 실패"));
+                } finally {
+                    active.decrementAndGet();
+                    try {
+                        if (ws.isOpen()) ws.close(CloseStatus.NORMAL);
+                    } catch (Exception ignore) {
+                        // 이미 닫힘
+                    }
+                }
+            });
+        }
+
+        /** 마지막 오디오 이후 한도가 지났으면 종료, 아니면 남은 시간 뒤에 다시 본다 */
+        private synchronized void checkIdle() {
+            if (finished.get()) return;
+            long idleNanos = System.nanoTime() - lastAudioAt;
+            long limitNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+            if (idleNanos >= limitNanos) {
+                expire("오디오 유휴");
+            } else {
+                idleTimer = timers.schedule(this::checkIdle, limitNanos - idleNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void expire(String reason) {
+            if (finished.get()) return;
+            log.debug("/stt/live {} 도달 → 저장 후 종료", reason);
+            finish();
+        }
+
+        /** 새 스트림: 설정 요청(interim 결과 포함)을 먼저 보낸다. 호출자는 이 세션의 모니터를 쥐고 있다 */
+        private void open() {
+            int index = finals.size();
+            finals.add(new StringBuilder());
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            streamsDone.add(done);
+            streamBytes = 0;
+
+            stream = speechClient.streamingRecognizeCallable().splitCall(new ResponseObserver<StreamingRecognizeResponse>() {
+                @Override
+                public void onStart(StreamController controller) {}
+
+                @Override
+                public void onResponse(StreamingRecognizeResponse response) {
+                    StringBuilder interim = new StringBuilder();
+                    for (StreamingRecognitionResult res : response.getResultsList()) {
+                        if (res.getAlternativesCount() == 0) continue;
+                        String text = res.getAlternatives(0).getTranscript();
+                        if (res.getIsFinal()) {
+                            synchronized (LiveSession.this) {
+                                finals.get(index).append(text.trim()).append(' ');
+                            }
+                            send(LiveSttMessage.fin(text.trim()));
+                        } else {
+                            interim.append(text);
+                        }
+                    }
+                    if (!interim.isEmpty()) send(LiveSttMessage.partial(interim.toString().trim()));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    done.completeExceptionally(t);
+                    if (!isCurrent(index)) {
+                        // 이미 갈아탄 앞 스트림: 늦은 final 만 잃고 세션은 계속한다
+                        log.debug("/stt/live 이전 인식 스트림 오류(무시): {}", t.getMessage());
+                    } else if (!finished.get()) {
+                        log.warn("/stt/live 인식 스트림 오류: {}", t.getMessage());
+                        send(LiveSttMessage.error("인식 오류: " + t.getMessage()));
+                        finish();
+                    }
+                }
+
+                @Override
+                public void onComplete() {
+                    done.complete(null);
+                }
+            });
+
+            stream.send(StreamingRecognizeRequest.newBuilder()
+                    .setStreamingConfig(StreamingRecognitionConfig.newBuilder()
+                            .setConfig(RecognitionConfig.newBuilder()
+                                    .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
+                                    .setSampleRateHertz(sampleRate)
+                                    .setLanguageCode(languageCode)
+                                    .setEnableAutomaticPunctuation(true)
+                                    .build())
+                            .setInterimResults(true)
+                            .build())
+                    .build());
+        }
+
+        private synchronized boolean isCurrent(int index) {
+            return index == finals.size() - 1;
+        }
+
+        private synchronized String transcript() {
+            StringBuilder all = new StringBuilder();
+            for (StringBuilder part : finals) all.append(part);
+            return all.toString().trim();
+        }
+
+        private void send(LiveSttMessage message) {
+            if (!ws.isOpen()) return;
+            try {
+                ws.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+            } catch (Exception e) {
+                log.debug("/stt/live 전송 실패: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.record.STT;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * /stt/live 서버 → 클라이언트 메시지.
+ * type: partial(진행 중 발화, 바뀔 수 있음) | final(확정 문장) | saved(저장된 Transcription id) | error
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LiveSttMessage(String type, String text, Long id) {
+
+    static LiveSttMessage partial(String text) { return new LiveSttMessage("partial", text, null); }
+    static LiveSttMessage fin(String text) { return new LiveSttMessage("final", text, null); }
+    static LiveSttMessage saved(Long id, String text) { return new LiveSttMessage("saved", text, id); }
+    static LiveSttMessage error(String message) { return new LiveSttMessage("error", message, null); }
+}
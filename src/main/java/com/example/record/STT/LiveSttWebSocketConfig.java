@@ -0,0 +1,43 @@
+package com.example.record.STT;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * /stt/live 실시간 인식 WebSocket.
+ * 핸드셰이크는 일반 요청처럼 보안 필터(JWT)를 거치므로 /stt/** 인증 규칙이 그대로 적용된다.
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class LiveSttWebSocketConfig implements WebSocketConfigurer {
+
+    private final LiveSttHandler liveSttHandler;
+
+    @Value("${stt.live.allowed-origins:*}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveSttHandler, "/stt/live")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    /** 바이너리 프레임 하나의 상한(100ms PCM 은 3.2KB)과 유휴 연결 정리 */
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer(
+            @Value("${stt.live.max-frame-bytes:65536}") int maxFrameBytes,
+            @Value("${stt.live.idle-timeout-ms:30000}") long idleTimeoutMs) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(maxFrameBytes);
+        container.setMaxTextMessageBufferSize(8192);
+        container.setMaxSessionIdleTimeout(idleTimeoutMs);
+        return container;
+    }
+}
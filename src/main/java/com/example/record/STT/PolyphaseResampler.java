@@ -0,0 +1,134 @@
+package com.example.record.STT;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 정수비 L/M 폴리페이즈 리샘플러(mono float → s16).
+ * 원형 저역 통과 필터(윈도우드 sinc, Blackman)를 L 개 위상으로 나눠, 출력 샘플마다 한 위상의 탭만 곱한다.
+ * 계수 표는 표준 샘플레이트(8k/11.025k/12k/22.05k/24k/32k/44.1k/48k → 16k)만 한 번 만들어 공유하고,
+ * 그 밖의 비율은 인스턴스마다 만든다(헤더 값으로 공유 캐시가 끝없이 커지지 않게).
+ * 인스턴스는 이력/출력 버퍼를 재사용한다. 스트림 하나에 인스턴스 하나(스레드 안전하지 않음).
+ */
+final class PolyphaseResampler {
+
+    /** 필터 한쪽의 영점 교차 수(클수록 전이 대역이 좁고 느리다) */
+    private static final int ZERO_CROSSINGS = 8;
+
+    private static final Set<Integer> STANDARD_RATES = Set.of(8_000, 11_025, 12_000, 22_050, 24_000, 32_000, 44_100, 48_000);
+
+    /** 표준 비율의 계수 표. 키 수는 STANDARD_RATES × 출력 레이트(16k 하나)로 묶여 있다 */
+    private static final Map<Long, Filter> FILTERS = new ConcurrentHashMap<>();
+
+    /** 위상별 계수: taps[phase][k] 는 x[base - k] 에 곱한다 */
+    private record Filter(int up, int down, int tapsPerPhase, float[][] taps) {}
+
+    private final Filter filter;
+    private final float[] history;   // 최근 입력(tapsPerPhase - 1 개) + 이번 입력, 재사용
+    private int historyLen;
+    private long phaseAcc;           // 다음 출력의 위치(업샘플 격자, 이번 버퍼 시작 기준)
+    private short[] out = new short[0];
+
+    PolyphaseResampler(int inRate, int outRate) {
+        this.filter = STANDARD_RATES.contains(inRate) && outRate == VadSegmenter.SAMPLE_RATE
+                ? FILTERS.computeIfAbsent(((long) inRate << 32) | outRate, k -> design(inRate, outRate))
+                : design(inRate, outRate);
+        this.history = new float[filter.tapsPerPhase() - 1];
+    }
+
+    /**
+     * in[0..n) 을 받아 만든 출력 샘플 수. 결과는 output() 버퍼 앞부분에 있다(다음 호출 때 덮어쓴다).
+     */
+    int process(float[] in, int n) {
+        int taps = filter.tapsPerPhase();
+        int up = filter.up();
+        int down = filter.down();
+        int keep = taps - 1;
+
+        // 입력 좌표 i(0 = 이번 버퍼 첫 샘플) 의 값: i < 0 이면 이력에서
+        int total = historyLen + n;
+        int maxOut = (int) ((((long) total) * up) / down) + 2;
+        if (out.length < maxOut) out = new short[maxOut];
+
+        int produced = 0;
+        long pos = phaseAcc;
+        while (true) {
+            long base = pos / up;                   // 이번 버퍼 기준 입력 인덱스
+            if (base >= n) break;
+            int phase = (int) (pos % up);
+            float[] h = filter.taps()[phase];
+            double acc = 0;
+            for (int k = 0; k < taps; k++) {
+                long idx = base - k;
+                float x;
+                if (idx >= 0) x = in[(int) idx];
+                else {
+                    int hIdx = historyLen + (int) idx;
+                    x = hIdx >= 0 ? history[hIdx] : 0f;
+                }
+                acc += h[k] * x;
+            }
+            out[produced++] = clamp(acc);
+            pos += down;
+        }
+        phaseAcc = pos - (long) n * up;
+
+        // 이력 갱신: 마지막 keep 개 입력
+        if (keep > 0) {
+            if (n >= keep) {
+                System.arraycopy(in, n - keep, history, 0, keep);
+                historyLen = keep;
+            } else {
+                int fromHistory = Math.min(historyLen, keep - n);
+                System.arraycopy(history, historyLen - fromHistory, history, 0, fromHistory);
+                System.arraycopy(in, 0, history, fromHistory, n);
+                historyLen = fromHistory + n;
+            }
+        }
+        return produced;
+    }
+
+    short[] output() {
+        return out;
+    }
+
+    /** 공유 캐시에 있는 계수 표 수(테스트/진단용) */
+    static int cachedFilters() {
+        return FILTERS.size();
+    }
+
+    private static short clamp(double v) {
+        long r = Math.round(v);
+        if (r > Short.MAX_VALUE) return Short.MAX_VALUE;
+        if (r < Short.MIN_VALUE) return Short.MIN_VALUE;
+        return (short) r;
+    }
+
+    private static Filter design(int inRate, int outRate) {
+        int g = gcd(inRate, outRate);
+        int up = outRate / g;
+        int down = inRate / g;
+
+        // 차단 주파수: 업샘플 격자 기준 0.5 / max(L, M) (다운샘플 시 앨리어싱 방지)
+        int ratio = Math.max(up, down);
+        int tapsPerPhase = 2 * ZERO_CROSSINGS * (int) Math.ceil((double) ratio / up);
+        int length = up * tapsPerPhase;
+        double fc = 0.5 / ratio;
+        double center = (length - 1) / 2.0;
+
+        float[][] taps = new float[up][tapsPerPhase];
+        for (int i = 0; i < length; i++) {
+            double t = i - center;
+            double sinc = t == 0 ? 2 * fc : Math.sin(2 * Math.PI * fc * t) / (Math.PI * t);
+            double w = 0.42 - 0.5 * Math.cos(2 * Math.PI * i / (length - 1))
+                    + 0.08 * Math.cos(4 * Math.PI * i / (length - 1));
+            taps[i % up][i / up] = (float) (up * sinc * w);  // 보간 이득 L 보정
+        }
+        return new Filter(up, down, tapsPerPhase, taps);
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.record.STT;
+
+import com.google.api.gax.core.InstantiatingExecutorProvider;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.cloud.speech.v1.SpeechClient;
+import com.google.cloud.speech.v1.SpeechSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.threeten.bp.Duration;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Configuration
+public class SpeechConfig {
+
+    /**
+     * gRPC 응답 콜백 스레드. 동시 구간 인식 수(stt.segment.parallelism)에 맞춘다.
+     * Executor 빈으로 노출하면 Boot 기본 applicationTaskExecutor 가 빠지므로 설정 안에서만 갖고,
+     * 클라이언트(이 설정에 의존)가 먼저 닫힌 뒤 종료한다.
+     */
+    private ExecutorService speechExecutor;
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (speechExecutor != null) speechExecutor.shutdown();
+    }
+
+    /**
+     * 앱 전체에서 하나만 쓰는 Speech 클라이언트.
+     * 인증/채널 생성은 한 번만 하고 keepalive 로 유휴 중에도 연결을 유지한다. 종료 시 close() 한다.
+     */
+    @Bean(destroyMethod = "close")
+    public SpeechClient speechClient(@Value("${stt.segment.parallelism:8}") int parallelism,
+                                     @Value("${stt.speech.keepalive-seconds:60}") long keepAliveSeconds,
+                                     @Value("${stt.speech.keepalive-timeout-seconds:20}") long keepAliveTimeoutSeconds,
+                                     @Value("${stt.speech.max-inbound-message-bytes:8388608}") int maxInboundBytes)
+            throws IOException {
+        AtomicInteger seq = new AtomicInteger();
+        speechExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "speech-grpc-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        InstantiatingGrpcChannelProvider channel = SpeechSettings.defaultGrpcTransportProviderBuilder()
+                .setKeepAliveTime(Duration.ofSeconds(keepAliveSeconds))
+                .setKeepAliveTimeout(Duration.ofSeconds(keepAliveTimeoutSeconds))
+                .setKeepAliveWithoutCalls(true)
+                .setMaxInboundMessageSize(maxInboundBytes)
+                .setExecutor(speechExecutor)
+                .build();
+
+        SpeechSettings settings = SpeechSettings.newBuilder()
+                .setTransportChannelProvider(channel)
+                .setBackgroundExecutorProvider(InstantiatingExecutorProvider.newBuilder()
+                        .setExecutorThreadCount(2)  // 재시도/타이머용
+                        .build())
+                .build();
+        return SpeechClient.create(settings);
+    }
+
+    @Bean
+    public SpeechWarmup speechWarmup(SpeechClient speechClient, MeterRegistry meterRegistry,
+                                     @Value("${stt.speech.warmup:true}") boolean enabled) {
+        return new SpeechWarmup(speechClient, meterRegistry, enabled);
+    }
+
+    /**
+     * 기동 직후 과금 없는 RPC(존재하지 않는 operation 조회) 하나로 TLS/HTTP2/인증 토큰을 미리 준비한다.
+     * NOT_FOUND 응답이 오면 채널이 열린 것이다. 걸린 시간은 stt.speech.warmup 으로 남는다.
+     */
+    static class SpeechWarmup {
+
+        private final SpeechClient client;
+        private final MeterRegistry meterRegistry;
+        private final boolean enabled;
+
+        SpeechWarmup(SpeechClient client, MeterRegistry meterRegistry, boolean enabled) {
+            this.client = client;
+            this.meterRegistry = meterRegistry;
+            this.enabled = enabled;
+        }
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void warmup() {
+            if (!enabled) return;
+            Thread.ofVirtual().name("speech-warmup").start(() -> {
+                long start = System.nanoTime();
+                try {
+                    client.getOperationsClient().getOperation("warmup");
+                } catch (Exception expected) {
+                    // NOT_FOUND 등: 응답을 받았다면 연결은 열렸다
+                }
+                long took = System.nanoTime() - start;
+                Timer.builder("stt.speech.warmup").register(meterRegistry).record(took, TimeUnit.NANOSECONDS);
+                log.info("Speech 채널 예열 완료: {}ms", TimeUnit.NANOSECONDS.toMillis(took));
+            });
+        }
+    }
+}
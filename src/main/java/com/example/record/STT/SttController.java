@@ -4,18 +4,26 @@ import com.example.record.user.User;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,10 +33,15 @@ public class SttController {
     private final SttService sttService;              // 음성 → 텍스트
     private final SttGptService sttGptService;        // 요약/질문 생성
     private final TranscriptionRepository repo;
+    private final ObjectMapper objectMapper;          // 앱 공용(JacksonConfig)
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Value("${stt.gpt.stream-timeout-ms:120000}")
+    private long streamTimeoutMs;
 
-    /** 업로드 → STT 실행 */
+    @Value("${stt.transcode.retry-after-seconds:10}")
+    private long retryAfterSeconds;
+
+    /** 업로드 → STT 실행. 변환 슬롯/대기열이 가득 차면 429 + Retry-After */
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<?> transcribe(@RequestParam("file") MultipartFile file,
                                         @AuthenticationPrincipal User user) throws Exception {
@@ -38,21 +51,24 @@ public class SttController {
         }
 
         String original = file.getOriginalFilename();
-        String suffix = resolveSuffix(original);
-
-        Path temp = Files.createTempFile("stt_", suffix);
-        try {
-            file.transferTo(temp.toFile());
 
-            // 변환 + Google STT
-            String result = sttService.transcribeLocalFile(temp.toString());
+        // 업로드 스트림 → ffmpeg → Google STT 스트리밍(임시 파일 없음)
+        try (InputStream audio = file.getInputStream()) {
+            String result;
+            try {
+                result = sttService.transcribe(audio);
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                        .body(e.getMessage());
+            }
             if (!StringUtils.hasText(result)) {
                 return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
                         .body("음성에서 텍스트를 추출하지 못했습니다.");
             }
 
             Transcription t = Transcription.builder()
-                    .fileName(original != null ? original : temp.getFileName().toString())
+                    .fileName(original != null ? original : "stt" + resolveSuffix(original))
                     .resultText(result)
                     .createdAt(LocalDateTime.now())
                     .user(user)
@@ -66,8 +82,6 @@ public class SttController {
                     t.getResultText(),
                     t.getCreatedAt()
             ));
-        } finally {
-            try { Files.deleteIfExists(temp); } catch (Exception ignore) {}
         }
     }
 
@@ -94,6 +108,55 @@ public class SttController {
                 .orElseGet(() -> ResponseEntity.status(404).body(new GptResponse("Not Found")));
     }
 
+    /**
+     * 요약 스트리밍(SSE): 토큰이 오는 대로 "delta" 이벤트, 끝나면 전체 요약을 "done" 이벤트로 보내고 저장.
+     * 클라이언트가 끊거나 emitter 가 시간 초과되면 OpenAI 스트림을 취소한다(더 받는 토큰은 비용만 든다).
+     * SseEmitter.send 와 저장은 블로킹이라 Netty 이벤트 루프가 아닌 boundedElastic 에서 한다.
+     */
+    @PostMapping(value = "/gpt/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> summarizeStream(@RequestParam Long id,
+                                                      @AuthenticationPrincipal User user) {
+        if (user == null) return ResponseEntity.status(401).build();
+
+        Transcription t = repo.findById(id).orElse(null);
+        if (t == null) return ResponseEntity.status(404).build();
+        if (!t.getUser().getId().equals(user.getId())) return ResponseEntity.status(403).build();
+        String baseText = t.getResultText();
+        if (!StringUtils.hasText(baseText)) return ResponseEntity.status(422).build();
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        StringBuilder summary = new StringBuilder();
+        // subscribe 가 돌려주기 전에 끊겨도 취소되도록 swap 에 담는다(이미 dispose 됐으면 update 가 바로 취소)
+        Disposable.Swap subscription = Disposables.swap();
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+        subscription.update(sttGptService.summarizeStream(baseText)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(token -> {
+                    summary.append(token);
+                    if (!trySend(emitter, SseEmitter.event().name("delta").data(new GptDelta(token)))) {
+                        subscription.dispose();  // 클라이언트가 끊김
+                    }
+                })
+                .then(Mono.fromCallable(() -> {
+                    String result = summary.toString().trim();
+                    t.setSummary(result);
+                    repo.save(t);
+                    return result;
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .subscribe(
+                        result -> {
+                            trySend(emitter, SseEmitter.event().name("done").data(new GptResponse(result)));
+                            emitter.complete();
+                        },
+                        e -> {
+                            trySend(emitter, SseEmitter.event().name("error").data(new GptResponse("요약 생성 실패: " + e.getMessage())));
+                            emitter.complete();
+                        }));
+        return ResponseEntity.ok(emitter);
+    }
+
     /** 후기 기반 질문 생성 */
     @PostMapping("/gpt/questions")
     public ResponseEntity<GptQuestionsResponse> createQuestions(@RequestParam Long id,
@@ -125,6 +188,42 @@ public class SttController {
                 .orElseGet(() -> ResponseEntity.status(404).body(new GptQuestionsResponse(List.of("Not Found"))));
     }
 
+    /**
+     * 요약 + 질문을 한 번에 만들고 한 번에 저장.
+     * mode=combined(기본): 원문을 한 번만 보내는 단일 JSON 호출, mode=parallel: 두 프롬프트 동시 호출(각자 temperature)
+     */
+    @PostMapping("/analyze")
+    public ResponseEntity<GptAnalysisResponse> analyze(@RequestParam Long id,
+                                                       @RequestParam(defaultValue = "combined") String mode,
+                                                       @AuthenticationPrincipal User user) {
+        if (user == null) return ResponseEntity.status(401).build();
+
+        return repo.findById(id)
+                .map(t -> {
+                    if (!t.getUser().getId().equals(user.getId())) {
+                        return ResponseEntity.status(403).<GptAnalysisResponse>build();
+                    }
+                    String baseText = t.getResultText();
+                    if (!StringUtils.hasText(baseText)) {
+                        return ResponseEntity.status(422).<GptAnalysisResponse>build();
+                    }
+
+                    GptAnalysisResponse analysis = "parallel".equalsIgnoreCase(mode)
+                            ? sttGptService.analyzeParallel(baseText)
+                            : sttGptService.analyze(baseText);
+
+                    try {
+                        t.setSummary(analysis.summary());
+                        t.setQuestion(objectMapper.writeValueAsString(analysis.questions()));
+                        repo.save(t);
+                    } catch (Exception e) {
+                        return ResponseEntity.status(500).<GptAnalysisResponse>build();
+                    }
+                    return ResponseEntity.ok(analysis);
+                })
+                .orElseGet(() -> ResponseEntity.status(404).build());
+    }
+
     /** 단건 조회: 질문(JSON) 파싱 포함 */
     @GetMapping("/{id}")
     public ResponseEntity<TranscriptionResponse> getOne(@PathVariable Long id,
@@ -157,6 +256,16 @@ public class SttController {
 
     // ===== helpers =====
 
+    /** 보내지 못하면(클라이언트 끊김, 이미 완료) false */
+    private static boolean trySend(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     private static String resolveSuffix(String original) {
         if (original != null && original.lastIndexOf('.') != -1) {
             return original.substring(original.lastIndexOf('.'));
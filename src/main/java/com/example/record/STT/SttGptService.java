@@ -1,41 +1,134 @@
 package com.example.record.STT;
 
+import com.example.record.openai.OpenAiCallSite;
+import com.example.record.openai.OpenAiGateway;
+import com.example.record.openai.TokenCounter;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.util.retry.Retry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SttGptService {
 
-    @Value("${openai.api.key}")
-    private String apiKey;
+    private final OpenAiGateway openAi;  // 공용 커넥션 풀, 모델은 ModelRouter 가 선택
+    private final MeterRegistry meterRegistry;
+    private final TokenCounter tokenCounter;
+    private final TranscriptChunker chunker;
+    private final ObjectMapper objectMapper;            // 앱 공용(JacksonConfig)
 
-    @Value("${openai.chat.model:gpt-4o-mini}")
-    private String chatModel;
+    /** 원문이 이 토큰 수를 넘으면 구간별 요약(map) → 최종 요약(reduce) */
+    @Value("${stt.summary.map-reduce-threshold-tokens:6000}")
+    private int mapReduceThreshold;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Value("${stt.summary.chunk-tokens:2000}")
+    private int chunkTokens;
 
-    // ✅ Authorization 기본 헤더 제거 (아래 요청 때 setBearerAuth로 명확히 설정)
-    private final WebClient webClient = WebClient.builder()
-            .baseUrl("https://api.openai.com/v1")
-            .exchangeStrategies(ExchangeStrategies.builder()
-                    .codecs(c -> c.defaultCodecs().maxInMemorySize(8 * 1024 * 1024))
-                    .build())
-            .build();
+    /** 구간 요약 동시 호출 수 */
+    @Value("${stt.summary.parallelism:4}")
+    private int mapParallelism;
 
     public String summarize(String transcript) {
-        String prompt = """
+        return condense(transcript).flatMap(this::summaryMono).block();
+    }
+
+    /** 요약을 토큰 단위로 흘려보낸다. 첫 토큰까지 걸린 시간은 openai.stream.ttft 로 기록 */
+    public Flux<String> summarizeStream(String transcript) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean(true);
+            return condense(transcript)
+                    .flatMapMany(source -> openAi.chatStream(OpenAiCallSite.STT_SUMMARY, chatRequest(summaryPrompt(source))))
+                    .doOnNext(token -> {
+                        if (first.compareAndSet(true, false)) {
+                            Timer.builder("openai.stream.ttft").tag("site", "stt-summary")
+                                    .register(meterRegistry)
+                                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    });
+        });
+    }
+
+    /** 후기 기반 질문 생성: JSON 배열(List<String>)만 반환하도록 유도 */
+    public List<String> generateQuestions(String transcript) {
+        return condense(transcript).flatMap(this::questionsMono).block();
+    }
+
+    /**
+     * 요약 + 질문을 한 번의 호출로(JSON 객체 하나). 원문 입력 토큰을 한 번만 낸다.
+     * 응답이 기대한 형태가 아니면 두 프롬프트를 병렬로 보내는 방식으로 대신한다.
+     */
+    public GptAnalysisResponse analyze(String transcript) {
+        String source = condense(transcript).block();
+        Map<String, Object> request = Map.of(
+                "messages", List.of(
+                        Map.of("role", "system", "content",
+                                "당신은 JSON 응답 전용 보조자입니다. 오직 JSON 객체만 출력하세요. 설명/코드블록 금지."),
+                        Map.of("role", "user", "content", analysisPrompt(source))
+                ),
+                "temperature", 0.3,
+                "response_format", Map.of("type", "json_object")
+        );
+
+        String content = openAi.chat(OpenAiCallSite.STT_ANALYSIS, request).block();
+        try {
+            GptAnalysisResponse parsed = objectMapper.readValue(content == null ? "" : content.trim(), GptAnalysisResponse.class);
+            String summary = parsed.summary() == null ? "" : parsed.summary().trim();
+            if (!summary.isEmpty() && parsed.questions() != null && !parsed.questions().isEmpty()) {
+                return new GptAnalysisResponse(summary, parsed.questions());
+            }
+        } catch (Exception ignore) {
+            // 형식 불일치 → 병렬 방식으로
+        }
+        return parallel(source).block();
+    }
+
+    /** 요약(temperature 0.4)과 질문(0.3)을 동시에 보낸다. 지연은 둘 중 긴 쪽 */
+    public GptAnalysisResponse analyzeParallel(String transcript) {
+        return condense(transcript).flatMap(this::parallel).block();
+    }
+
+    private Mono<GptAnalysisResponse> parallel(String source) {
+        return Mono.zip(summaryMono(source), questionsMono(source))
+                .map(t -> new GptAnalysisResponse(t.getT1(), t.getT2()));
+    }
+
+    // ────────── 긴 원문: map 단계 ──────────
+
+    /**
+     * 짧은 원문은 그대로. 긴 원문은 문장 경계 구간으로 나눠 병렬(상한 mapParallelism)로 요약하고
+     * 순서대로 이어 붙인 것을 이후 프롬프트의 원문으로 쓴다. 구간 요약은 stt-summary-chunk 캐시에 남아
+     * 원문 뒤에 내용이 덧붙은 재요약에서는 바뀐 구간만 다시 호출된다.
+     */
+    private Mono<String> condense(String transcript) {
+        if (tokenCounter.count(transcript) <= mapReduceThreshold) return Mono.just(transcript);
+
+        List<String> chunks = chunker.split(transcript, chunkTokens);
+        return Flux.range(0, chunks.size())
+                .flatMapSequential(i -> openAi.chat(OpenAiCallSite.STT_SUMMARY_CHUNK, chunkRequest(chunks.get(i)))
+                                .map(summary -> "[구간 " + (i + 1) + "] " + summary.trim())
+                                .defaultIfEmpty(""),
+                        Math.max(1, mapParallelism))
+                .filter(part -> !part.isEmpty())
+                .collect(Collectors.joining("\n", "※ 긴 기록이라 구간별 요약으로 대신 전달합니다.\n", ""));
+    }
+
+    // ────────── 프롬프트 ──────────
+
+    private static String summaryPrompt(String transcript) {
+        return """
                 다음은 공연 관람 후 음성 기록입니다. 핵심 내용을 3~5문장으로 간결하고 자연스럽게 요약해 주세요.
                 - 불필요한 중복 제거
                 - 감상 포인트/인상 깊은 장면/배우·연출 특징 중심
@@ -43,13 +136,10 @@ public class SttGptService {
 
                 원문:
                 """ + transcript;
-
-        return callChatGpt(prompt);
     }
 
-    /** 후기 기반 질문 생성: JSON 배열(List<String>)만 반환하도록 유도 */
-    public List<String> generateQuestions(String transcript) {
-        String prompt = """
+    private static String questionsPrompt(String transcript) {
+        return """
                 다음은 한 관객의 공연 관람 후기 원문입니다. 이 후기를 바탕으로
                 관람자에게 되돌려 물어볼 수 있는 '깊이 있는 후속 질문'을 한국어로 6~8개 생성하세요.
 
@@ -65,99 +155,89 @@ public class SttGptService {
 
                 원문:
                 """ + transcript;
+    }
 
-        String content = callChatGptStrictJson(prompt);
-        try {
-            return objectMapper.readValue(content, new TypeReference<List<String>>() {});
-        } catch (Exception e) {
-            try {
-                int s = content.indexOf('[');
-                int eIdx = content.lastIndexOf(']');
-                if (s >= 0 && eIdx > s) {
-                    String onlyArray = content.substring(s, eIdx + 1);
-                    return objectMapper.readValue(onlyArray, new TypeReference<List<String>>() {});
-                }
-            } catch (Exception ignore) {}
-            return List.of("질문 생성에 실패했습니다. 다시 시도해 주세요.");
-        }
+    private static String analysisPrompt(String transcript) {
+        return """
+                다음은 한 관객의 공연 관람 후 음성 기록입니다. 아래 두 가지를 한 번에 만들어 주세요.
+
+                1) summary: 핵심 내용을 3~5문장으로 간결하고 자연스럽게 요약
+                   - 불필요한 중복 제거
+                   - 감상 포인트/인상 깊은 장면/배우·연출 특징 중심
+                   - 존댓말로 마무리 한 문장 포함
+                2) questions: 관람자에게 되돌려 물어볼 '깊이 있는 후속 질문' 6~8개(한국어)
+                   - 공손하고 대화형(예: "~은 어떠셨나요?")
+                   - 장면/대사/연출, 배우의 연기·가창, 음악/무대·조명/의상, 주제 해석과 개인 경험,
+                     아쉬운 점과 개선 아이디어, 재관람/추천 의향을 섞어서
+
+                출력 형식(이 JSON 객체만):
+                {"summary": "...", "questions": ["...", "..."]}
+
+                원문:
+                """ + transcript;
     }
 
-    @SuppressWarnings("unchecked")
-    private String callChatGpt(String prompt) {
-        Map<String, Object> request = Map.of(
-                "model", chatModel,
+    // ────────── 호출 ──────────
+
+    private Map<String, Object> chunkRequest(String chunk) {
+        String prompt = """
+                다음은 긴 공연 관람 후 음성 기록의 한 구간입니다.
+                이 구간의 핵심(감상 포인트, 인상 깊은 장면, 배우·연출 언급)을 2~4문장으로 요약하세요.
+                원문에 없는 내용은 덧붙이지 마세요.
+
+                구간:
+                """ + chunk;
+        return Map.of(
                 "messages", List.of(Map.of("role", "user", "content", prompt)),
-                "temperature", 0.4
+                "temperature", 0.2
         );
+    }
 
-        Map<String, Object> response = webClient.post()
-                .uri(uriBuilder -> uriBuilder.path("/chat/completions").build())
-                .contentType(MediaType.APPLICATION_JSON)
-                .headers(h -> h.setBearerAuth(apiKey))   // ✅ 여기서만 Bearer 설정
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .timeout(Duration.ofSeconds(30))
-                .retryWhen(Retry.backoff(2, Duration.ofMillis(400)))
-                .block();
+    private Map<String, Object> chatRequest(String prompt) {
+        return Map.of(
+                "messages", List.of(Map.of("role", "user", "content", prompt)),
+                "temperature", 0.4
+        );
+    }
 
-        try {
-            Object choices = response.get("choices");
-            if (choices instanceof List<?> list && !list.isEmpty()) {
-                Object first = list.get(0);
-                if (first instanceof Map<?, ?> mp) {
-                    Object msg = mp.get("message");
-                    if (msg instanceof Map<?, ?> m2) {
-                        Object content = m2.get("content");
-                        if (content != null) return content.toString().trim();
-                    }
-                }
-            }
-            return "GPT 응답이 비어 있습니다.";
-        } catch (Exception e) {
-            return "GPT 응답 처리 실패: " + e.getMessage();
-        }
+    private Mono<String> summaryMono(String transcript) {
+        return openAi.chat(OpenAiCallSite.STT_SUMMARY, chatRequest(summaryPrompt(transcript)))
+                .map(String::trim)
+                .defaultIfEmpty("GPT 응답이 비어 있습니다.");
     }
 
     /** JSON 배열만 반환하도록 더 강하게 유도 */
-    @SuppressWarnings("unchecked")
-    private String callChatGptStrictJson(String prompt) {
+    private Mono<List<String>> questionsMono(String transcript) {
         Map<String, Object> request = Map.of(
-                "model", chatModel,
                 "messages", List.of(
                         Map.of("role", "system", "content",
                                 "당신은 JSON 응답 전용 보조자입니다. 오직 JSON 배열만 출력하세요. 설명/코드블록 금지."),
-                        Map.of("role", "user", "content", prompt)
+                        Map.of("role", "user", "content", questionsPrompt(transcript))
                 ),
                 "temperature", 0.3
         );
 
-        Map<String, Object> response = webClient.post()
-                .uri(uriBuilder -> uriBuilder.path("/chat/completions").build())
-                .contentType(MediaType.APPLICATION_JSON)
-                .headers(h -> h.setBearerAuth(apiKey))   // ✅ 여기서만 Bearer 설정
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .timeout(Duration.ofSeconds(30))
-                .retryWhen(Retry.backoff(2, Duration.ofMillis(400)))
-                .block();
+        return openAi.chat(OpenAiCallSite.STT_QUESTIONS, request)
+                .map(String::trim)
+                .defaultIfEmpty("[]")
+                .map(this::parseQuestions);
+    }
+
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
 
+    private List<String> parseQuestions(String content) {
         try {
-            Object choices = response.get("choices");
-            if (choices instanceof List<?> list && !list.isEmpty()) {
-                Object first = list.get(0);
-                if (first instanceof Map<?, ?> mp) {
-                    Object msg = mp.get("message");
-                    if (msg instanceof Map<?, ?> m2) {
-                        Object content = m2.get("content");
-                        if (content != null) return content.toString().trim();
-                    }
-                }
-            }
-            return "[]";
+            return objectMapper.readValue(content, STRING_LIST);
         } catch (Exception e) {
-            return "[]";
+            try {
+                int s = content.indexOf('[');
+                int eIdx = content.lastIndexOf(']');
+                if (s >= 0 && eIdx > s) {
+                    String onlyArray = content.substring(s, eIdx + 1);
+                    return objectMapper.readValue(onlyArray, STRING_LIST);
+                }
+            } catch (Exception ignore) {}
+            return List.of("질문 생성에 실패했습니다. 다시 시도해 주세요.");
         }
     }
 }
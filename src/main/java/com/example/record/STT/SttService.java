@@ -1,83 +1,183 @@
 package com.example.record.STT;
 
+import com.example.record.resilience.Resilience;
+import com.example.record.resilience.ResilientEndpoint;
 import com.google.cloud.speech.v1.*;
-import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 업로드 음성 → 텍스트.
+ * 16비트 PCM WAV 는 WavDecoder 가(프로세스 없이), 그 외 포맷은 FfmpegTranscoder(제한된 변환 슬롯)가
+ * 원본을 16kHz mono s16le PCM 으로 바꾸고, VadSegmenter 가 그 출력을 읽는 대로 무음 경계에서 1분 미만 구간으로 자른다.
+ * 구간은 완성되는 즉시 병렬(상한 stt.segment.parallelism)로 인식하고, 끝나면 순서대로 이어 붙인다.
+ * 임시 파일이 없고, 메모리에는 동시에 인식 중인 구간만 남는다.
+ */
 @Service
 public class SttService {
 
-    @Value("${stt.ffmpeg.path:ffmpeg}")
-    private String ffmpegPath;
-
-    /** 업로드 파일을 LINEAR16 16kHz mono WAV로 변환 */
-    private Path convertToWav(Path inputFile) throws Exception {
-        Path outputFile = Files.createTempFile("stt_converted_", ".wav");
-
-        ProcessBuilder pb = new ProcessBuilder(
-                ffmpegPath,
-                "-y",
-                "-i", inputFile.toString(),
-                "-ar", "16000",
-                "-ac", "1",
-                "-c:a", "pcm_s16le",
-                outputFile.toString()
-        );
-        pb.redirectErrorStream(true);
-        Process p = pb.start();
-
-        StringBuilder log = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) log.append(line).append('\n');
-        }
+    private static final int MAX_OVERLAP_WORDS = 12;
 
-        int exit = p.waitFor();
-        if (exit != 0) {
-            try { Files.deleteIfExists(outputFile); } catch (Exception ignore) {}
-            throw new RuntimeException("ffmpeg 변환 실패(exit=" + exit + ")\n" + log);
-        }
-        return outputFile;
-    }
+    /** 동시에 인식하는 구간 수(읽기는 이 수만큼 앞서 나가면 멈춘다) */
+    @Value("${stt.segment.parallelism:8}")
+    private int parallelism;
 
-    /** 변환된 WAV를 Google STT에 전달하여 텍스트로 변환 */
-    public String transcribeLocalFile(String filePath) throws Exception {
-        Path input = Path.of(filePath);
-        Path wav = convertToWav(input);
+    private final ResilientEndpoint speech;  // 적응형 타임아웃 + 재시도 가능한 gRPC 오류만 재시도 + 서킷
+    private final VadSegmenter segmenter;
+    private final FfmpegTranscoder transcoder;
+    private final SpeechClient speechClient; // 앱 전체 공용 채널(SpeechConfig)
 
-        try (SpeechClient speechClient = SpeechClient.create()) {
-            byte[] data = Files.readAllBytes(wav);
-            ByteString audioBytes = ByteString.copyFrom(data);
+    private final Timer waitTimer;       // 구간 완성 → RPC 시작(빈 슬롯/채널 대기)
+    private final Timer recognizeTimer;  // RPC 시작 → 응답(재시도 포함)
+    private final Counter javaPath;      // WAV → Java 변환
+    private final Counter ffmpegPath;    // 압축 포맷 → ffmpeg
 
-            RecognitionConfig config = RecognitionConfig.newBuilder()
-                    .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
-                    .setSampleRateHertz(16000)
-                    .setLanguageCode("ko-KR")
-                    .build();
+    public SttService(Resilience resilience, VadSegmenter segmenter, FfmpegTranscoder transcoder,
+                      SpeechClient speechClient, MeterRegistry meterRegistry) {
+        this.speech = resilience.endpoint(Resilience.SPEECH);
+        this.segmenter = segmenter;
+        this.transcoder = transcoder;
+        this.speechClient = speechClient;
+        this.waitTimer = Timer.builder("stt.speech.call").tag("phase", "wait").register(meterRegistry);
+        this.recognizeTimer = Timer.builder("stt.speech.call").tag("phase", "recognize").register(meterRegistry);
+        this.javaPath = Counter.builder("stt.frontend").tag("path", "java").register(meterRegistry);
+        this.ffmpegPath = Counter.builder("stt.frontend").tag("path", "ffmpeg").register(meterRegistry);
+    }
 
-            RecognitionAudio audio = RecognitionAudio.newBuilder()
-                    .setContent(audioBytes)
-                    .build();
+    /**
+     * 원본 음성 스트림을 끝까지 읽어 인식한다. 스트림은 호출자가 닫는다.
+     * 16비트 PCM WAV 는 Java 에서 바로 16kHz mono 로 바꾸고, 그 외 포맷만 ffmpeg 로 변환한다.
+     * 변환 슬롯이 없으면 RejectedExecutionException(대기열 초과/대기 시간 초과)
+     */
+    public String transcribe(InputStream audio) throws Exception {
+        List<Future<String>> texts = new ArrayList<>();
+        List<Boolean> overlaps = new ArrayList<>();
 
-            RecognizeResponse response = speechClient.recognize(config, audio);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            BufferedInputStream in = new BufferedInputStream(audio, WavDecoder.MARK_LIMIT);
+            try {
+                Optional<InputStream> wav = WavDecoder.open(in);
+                if (wav.isPresent()) {
+                    javaPath.increment();
+                    try (InputStream pcm = wav.get()) {
+                        segmentAndRecognize(pcm, workers, texts, overlaps);
+                    }
+                } else {
+                    ffmpegPath.increment();
+                    transcoder.transcode(in, pcm -> {
+                        segmentAndRecognize(pcm, workers, texts, overlaps);
+                        return null;
+                    });
+                }
+            } catch (Exception e) {
+                texts.forEach(f -> f.cancel(true));
+                throw e;
+            }
 
-            StringBuilder result = new StringBuilder();
-            for (SpeechRecognitionResult res : response.getResultsList()) {
-                if (res.getAlternativesCount() > 0) {
-                    result.append(res.getAlternatives(0).getTranscript()).append(" ");
+            List<String> parts = new ArrayList<>(texts.size());
+            for (Future<String> f : texts) {
+                try {
+                    parts.add(f.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception cause) throw cause;  // 구간 인식 실패 → 원인 예외로
+                    throw e;
                 }
             }
-            return result.toString().trim();
-        } finally {
-            try { Files.deleteIfExists(wav); } catch (Exception ignore) {}
+            return stitch(parts, overlaps);
         }
     }
+
+    /** PCM 을 구간으로 자르며 완성된 구간부터 인식을 띄운다. 결과 Future 는 순서대로 texts 에 */
+    private void segmentAndRecognize(InputStream pcm, ExecutorService workers,
+                                     List<Future<String>> texts, List<Boolean> overlaps) throws Exception {
+        Semaphore slots = new Semaphore(Math.max(1, parallelism));
+        segmenter.split(pcm, segment -> {
+            long cut = System.nanoTime();
+            slots.acquire();  // 인식 중 구간이 가득 차면 읽기를 멈춘다(역압)
+            overlaps.add(segment.overlapsPrevious());
+            texts.add(workers.submit(() -> {
+                long start = System.nanoTime();
+                waitTimer.record(start - cut, TimeUnit.NANOSECONDS);
+                try {
+                    return recognize(segment);
+                } finally {
+                    recognizeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    slots.release();
+                }
+            }));
+        });
+    }
+
+    /** 구간 하나(1분 미만) 동기 인식. 재시도 가능한 오류는 ResilientEndpoint 가 재시도 */
+    private String recognize(VadSegmenter.Segment segment) throws Exception {
+        RecognizeRequest request = RecognizeRequest.newBuilder()
+                .setConfig(RecognitionConfig.newBuilder()
+                        .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
+                        .setSampleRateHertz(VadSegmenter.SAMPLE_RATE)
+                        .setLanguageCode("ko-KR")
+                        .build())
+                .setAudio(RecognitionAudio.newBuilder()
+                        .setContent(UnsafeByteOperations.unsafeWrap(segment.pcm()))  // 구간 버퍼는 이후 수정되지 않는다
+                        .build())
+                .build();
+        RecognizeResponse response = speech.call(timeout ->
+                ResilientEndpoint.await(speechClient.recognizeCallable().futureCall(request), timeout));
+
+        StringBuilder result = new StringBuilder();
+        for (SpeechRecognitionResult res : response.getResultsList()) {
+            if (res.getAlternativesCount() > 0) {
+                result.append(res.getAlternatives(0).getTranscript()).append(" ");
+            }
+        }
+        return result.toString().trim();
+    }
+
+    /**
+     * 구간 텍스트를 순서대로 잇는다. 강제로 잘려 겹쳐 시작한 구간은
+     * 앞 구간 끝 단어들과 같은 앞부분(최대 MAX_OVERLAP_WORDS 단어)을 한 번만 남긴다.
+     */
+    static String stitch(List<String> parts, List<Boolean> overlaps) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            String part = parts.get(i);
+            if (part == null || part.isBlank()) continue;
+            List<String> next = List.of(part.trim().split("\\s+"));
+            int skip = overlaps.get(i) ? overlap(words, next) : 0;
+            words.addAll(next.subList(skip, next.size()));
+        }
+        return String.join(" ", words);
+    }
+
+    /** prev 의 끝 k 단어 == next 의 앞 k 단어 인 가장 큰 k(구두점/대소문자 무시) */
+    private static int overlap(List<String> prev, List<String> next) {
+        int max = Math.min(MAX_OVERLAP_WORDS, Math.min(prev.size(), next.size()));
+        for (int k = max; k > 0; k--) {
+            boolean same = true;
+            for (int j = 0; j < k && same; j++) {
+                same = normalize(prev.get(prev.size() - k + j)).equals(normalize(next.get(j)));
+            }
+            if (same) return k;
+        }
+        return 0;
+    }
+
+    private static String normalize(String word) {
+        return word.replaceAll("[\\p{Punct}…。]", "").toLowerCase();
+    }
 }
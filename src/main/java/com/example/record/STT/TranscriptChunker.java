@@ -0,0 +1,78 @@
+package com.example.record.STT;
+
+import com.example.record.openai.TokenCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 긴 녹취 원문을 문장 경계에서 잘라 토큰 상한 이하의 구간들로 묶는다.
+ * 앞에서부터 채우므로 원문 뒤에 내용이 덧붙어도 앞 구간은 그대로다(구간별 요약 캐시가 재사용된다).
+ */
+@Component
+@RequiredArgsConstructor
+public class TranscriptChunker {
+
+    /** 문장 끝(. ! ? … 。 및 줄바꿈) 뒤 공백에서 자른다 */
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?…。])\\s+|\\n+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final TokenCounter tokenCounter;
+
+    public List<String> split(String text, int maxTokens) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int currentTokens = 0;
+
+        for (String sentence : SENTENCE_END.split(text)) {
+            String s = sentence.trim();
+            if (s.isEmpty()) continue;
+            int tokens = tokenCounter.count(s);
+
+            if (tokens > maxTokens) {
+                // 한 문장이 상한보다 길면(STT 결과에 마침표가 없는 경우) 단어 단위로 나눈다
+                flush(chunks, current);
+                currentTokens = 0;
+                for (String part : splitWords(s, maxTokens)) chunks.add(part);
+                continue;
+            }
+            if (currentTokens + tokens > maxTokens) {
+                flush(chunks, current);
+                currentTokens = 0;
+            }
+            if (current.length() > 0) current.append(' ');
+            current.append(s);
+            currentTokens += tokens + 1;
+        }
+        flush(chunks, current);
+        return chunks;
+    }
+
+    private List<String> splitWords(String sentence, int maxTokens) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int currentTokens = 0;
+        for (String word : WHITESPACE.split(sentence)) {
+            int tokens = tokenCounter.count(word) + 1;
+            if (currentTokens + tokens > maxTokens && current.length() > 0) {
+                flush(parts, current);
+                currentTokens = 0;
+            }
+            if (current.length() > 0) current.append(' ');
+            current.append(word);
+            currentTokens += tokens;
+        }
+        flush(parts, current);
+        return parts;
+    }
+
+    private static void flush(List<String> out, StringBuilder current) {
+        if (current.length() > 0) {
+            out.add(current.toString());
+            current.setLength(0);
+        }
+    }
+}
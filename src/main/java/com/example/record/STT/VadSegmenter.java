@@ -0,0 +1,134 @@
+package com.example.record.STT;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 16kHz mono s16le PCM 을 에너지 기반 음성 구간 검출(VAD)로 잘라 인식 단위 구간을 만든다.
+ * 구간이 min-segment 이상이면 다음 무음(min-silence 이상)의 한가운데서 자르고,
+ * max-segment 까지 무음이 없으면 강제로 자르되 다음 구간이 overlap 만큼 겹쳐 시작한다(경계 단어 보존).
+ * 입력을 읽는 대로 구간을 내보내므로 메모리는 구간 하나 크기로 유지된다.
+ */
+@Component
+public class VadSegmenter {
+
+    static final int SAMPLE_RATE = 16000;
+    private static final int BYTES_PER_MS = SAMPLE_RATE * 2 / 1000;
+
+    /** 잘린 구간. overlapsPrevious 면 앞 구간 끝부분과 같은 소리로 시작한다 */
+    public record Segment(int index, byte[] pcm, long startMs, boolean overlapsPrevious) {
+        public long durationMs() {
+            return pcm.length / BYTES_PER_MS;
+        }
+    }
+
+    @FunctionalInterface
+    public interface SegmentSink {
+        void accept(Segment segment) throws Exception;
+    }
+
+    @Value("${stt.vad.frame-ms:30}")
+    private int frameMs;
+
+    /** 프레임 RMS 가 이보다 작으면 무음(dBFS) */
+    @Value("${stt.vad.silence-db:-40}")
+    private double silenceDb;
+
+    @Value("${stt.vad.min-silence-ms:400}")
+    private int minSilenceMs;
+
+    @Value("${stt.vad.min-segment-seconds:20}")
+    private int minSegmentSeconds;
+
+    /** 동기 recognize 한도(약 1분)보다 짧게 */
+    @Value("${stt.vad.max-segment-seconds:55}")
+    private int maxSegmentSeconds;
+
+    @Value("${stt.vad.overlap-ms:1000}")
+    private int overlapMs;
+
+    /** pcm 을 끝까지 읽으며 구간이 완성될 때마다 sink 로 넘긴다. 음성이 전혀 없는 구간은 버린다 */
+    public void split(InputStream pcm, SegmentSink sink) throws Exception {
+        int frameBytes = frameMs * BYTES_PER_MS;
+        long minBytes = (long) minSegmentSeconds * 1000 * BYTES_PER_MS;
+        long maxBytes = (long) maxSegmentSeconds * 1000 * BYTES_PER_MS;
+        int minSilenceFrames = Math.max(1, minSilenceMs / frameMs);
+        int overlapBytes = overlapMs / frameMs * frameBytes;
+
+        ByteArrayOutputStream current = new ByteArrayOutputStream((int) Math.min(maxBytes, 4 << 20));
+        byte[] frame = new byte[frameBytes];
+        long startMs = 0;
+        int index = 0;
+        int silentFrames = 0;
+        boolean voiced = false;
+        boolean overlapped = false;
+
+        int n;
+        while ((n = readFrame(pcm, frame)) > 0) {
+            current.write(frame, 0, n);
+            if (isSilent(frame, n)) {
+                silentFrames++;
+            } else {
+                silentFrames = 0;
+                voiced = true;
+            }
+
+            int size = current.size();
+            if (size >= minBytes && silentFrames >= minSilenceFrames) {
+                // 무음 한가운데서 자른다: 앞 절반은 이번 구간 끝, 뒤 절반은 다음 구간 시작
+                int cut = size - silentFrames / 2 * frameBytes;
+                byte[] all = current.toByteArray();
+                if (voiced) sink.accept(new Segment(index++, slice(all, 0, cut), startMs, overlapped));
+                startMs += cut / BYTES_PER_MS;
+                current.reset();
+                current.write(all, cut, all.length - cut);
+                voiced = false;
+                overlapped = false;
+                silentFrames = 0;
+            } else if (size >= maxBytes) {
+                // 무음이 없다: 강제로 자르고 끝부분 overlap 만큼을 다음 구간 앞에 다시 붙인다
+                byte[] all = current.toByteArray();
+                if (voiced) sink.accept(new Segment(index++, all, startMs, overlapped));
+                int keep = Math.min(overlapBytes, all.length);
+                startMs += (all.length - keep) / BYTES_PER_MS;
+                current.reset();
+                current.write(all, all.length - keep, keep);
+                voiced = keep > 0;
+                overlapped = keep > 0;
+                silentFrames = 0;
+            }
+        }
+        if (voiced && current.size() > 0) {
+            sink.accept(new Segment(index, current.toByteArray(), startMs, overlapped));
+        }
+    }
+
+    /** 프레임 RMS(dBFS) < silenceDb */
+    private boolean isSilent(byte[] frame, int len) {
+        int samples = len / 2;
+        if (samples == 0) return true;
+        double sum = 0;
+        for (int i = 0; i + 1 < len; i += 2) {
+            int s = (short) ((frame[i] & 0xff) | (frame[i + 1] << 8));  // little-endian
+            sum += (double) s * s;
+        }
+        double rms = Math.sqrt(sum / samples);
+        double db = rms <= 0 ? -120 : 20 * Math.log10(rms / 32768.0);
+        return db < silenceDb;
+    }
+
+    /** 프레임 하나를 채울 때까지 읽는다(마지막 프레임은 짧을 수 있음) */
+    private static int readFrame(InputStream in, byte[] frame) throws IOException {
+        return in.readNBytes(frame, 0, frame.length);
+    }
+
+    private static byte[] slice(byte[] src, int from, int to) {
+        byte[] out = new byte[to - from];
+        System.arraycopy(src, from, out, 0, out.length);
+        return out;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.record.STT;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * 16비트 PCM WAV(RIFF) → 16kHz mono s16le 스트림. ffmpeg 없이 헤더를 읽고 downmix + 리샘플만 한다.
+ * 압축 포맷(m4a/aac/mp3 등)이나 16비트 PCM 이 아닌 WAV, 헤더 값이 범위를 벗어난 WAV(8~48kHz, 1~8채널 밖)는
+ * empty 를 돌려주고 스트림을 처음 위치로 되돌린다(호출자는 같은 스트림을 ffmpeg 로 넘긴다).
+ * 헤더는 업로드한 쪽이 정하므로, 버퍼/필터 크기를 정하는 값은 여기서 먼저 막는다.
+ */
+final class WavDecoder {
+
+    /** 헤더 탐색 중 되돌릴 수 있는 최대 바이트(fmt/LIST 등 data 앞 청크 포함) */
+    static final int MARK_LIMIT = 64 * 1024;
+
+    static final int MIN_SAMPLE_RATE = 8_000;
+    static final int MAX_SAMPLE_RATE = 48_000;
+    static final int MAX_CHANNELS = 8;
+
+    private static final int WAVE_FORMAT_PCM = 1;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private WavDecoder() {}
+
+    /** in 은 mark 를 지원해야 한다(BufferedInputStream) */
+    static Optional<InputStream> open(InputStream in) throws IOException {
+        in.mark(MARK_LIMIT);
+        Format fmt;
+        try {
+            fmt = readHeader(in);
+        } catch (EOFException e) {
+            fmt = null;  // 헤더 도중 끝남 → ffmpeg 가 판단하게
+        }
+        if (fmt == null) {
+            in.reset();
+            return Optional.empty();
+        }
+        return Optional.of(new PcmStream(in, fmt));
+    }
+
+    private record Format(int channels, int sampleRate, long dataBytes) {}
+
+    /** RIFF/WAVE → fmt → data 까지 읽는다. 지원하지 않으면 null */
+    private static Format readHeader(InputStream in) throws IOException {
+        byte[] h = new byte[12];
+        if (in.readNBytes(h, 0, 12) < 12) return null;
+        if (!tag(h, 0, "RIFF") || !tag(h, 8, "WAVE")) return null;
+
+        int channels = 0, sampleRate = 0, bits = 0, format = -1;
+        byte[] ch = new byte[8];
+        long consumed = 12;
+        while (true) {
+            if (in.readNBytes(ch, 0, 8) < 8) return null;
+            consumed += 8;
+            long size = u32(ch, 4);
+            if (tag(ch, 0, "fmt ")) {
+                if (size < 16 || size > 64) return null;
+                byte[] f = in.readNBytes((int) size);
+                if (f.length < size) return null;
+                format = u16(f, 0);
+                channels = u16(f, 2);
+                sampleRate = (int) u32(f, 4);
+                bits = u16(f, 14);
+                if (format == WAVE_FORMAT_EXTENSIBLE && size >= 26) format = u16(f, 24);  // SubFormat GUID 앞 2바이트
+                if ((size & 1) == 1) in.skipNBytes(1);
+                consumed += size + (size & 1);
+            } else if (tag(ch, 0, "data")) {
+                if (format != WAVE_FORMAT_PCM || bits != 16) return null;
+                if (channels < 1 || channels > MAX_CHANNELS) return null;
+                if (sampleRate < MIN_SAMPLE_RATE || sampleRate > MAX_SAMPLE_RATE) return null;
+                // 스트리밍 기록기는 크기를 0/0xFFFFFFFF 로 남긴다 → 끝까지 읽는다
+                long data = size == 0 || size == 0xFFFFFFFFL ? Long.MAX_VALUE : size;
+                return new Format(channels, sampleRate, data);
+            } else {
+                long skip = size + (size & 1);
+                consumed += skip;
+                if (consumed > MARK_LIMIT - 8) return null;  // 되돌릴 수 없을 만큼 큰 앞 청크 → ffmpeg 로
+                in.skipNBytes(skip);
+            }
+            if (consumed > MARK_LIMIT - 8) return null;
+        }
+    }
+
+    /** data 청크를 읽으며 downmix → (필요하면) 리샘플 → s16le 로 내보낸다. 버퍼는 모두 재사용 */
+    private static final class PcmStream extends InputStream {
+
+        private static final int FRAMES_PER_READ = 4096;
+
+        private final InputStream in;
+        private final int channels;
+        private final PolyphaseResampler resampler;  // 16kHz 이면 null
+        private long remaining;
+
+        private final byte[] raw;
+        private final float[] mono = new float[FRAMES_PER_READ];
+        private byte[] out = new byte[0];
+        private int outPos;
+        private int outLen;
+        private boolean eof;
+
+        PcmStream(InputStream in, Format fmt) {
+            this.in = in;
+            this.channels = fmt.channels();
+            this.remaining = fmt.dataBytes();
+            this.raw = new byte[FRAMES_PER_READ * 2 * channels];
+            this.resampler = fmt.sampleRate() == VadSegmenter.SAMPLE_RATE
+                    ? null : new PolyphaseResampler(fmt.sampleRate(), VadSegmenter.SAMPLE_RATE);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (outPos >= outLen) {
+                if (eof) return -1;
+                fill();
+            }
+            int n = Math.min(len, outLen - outPos);
+            System.arraycopy(out, outPos, b, off, n);
+            outPos += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void fill() throws IOException {
+            int frameBytes = 2 * channels;
+            int want = (int) Math.min(raw.length, remaining - remaining % frameBytes);
+            int got = want > 0 ? in.readNBytes(raw, 0, want) : 0;
+            int frames = got / frameBytes;
+            if (got < want || frames == 0) eof = true;
+            remaining -= got;
+
+            // downmix: 채널 평균
+            for (int i = 0; i < frames; i++) {
+                int sum = 0;
+                int p = i * frameBytes;
+                for (int c = 0; c < channels; c++, p += 2) {
+                    sum += (short) ((raw[p] & 0xff) | (raw[p + 1] << 8));
+                }
+                mono[i] = (float) sum / channels;
+            }
+
+            short[] samples;
+            int count;
+            if (resampler == null) {
+                samples = null;
+                count = frames;
+            } else {
+                count = resampler.process(mono, frames);
+                samples = resampler.output();
+            }
+
+            if (out.length < count * 2) out = new byte[count * 2];
+            for (int i = 0; i < count; i++) {
+                int s = samples != null ? samples[i] : Math.round(mono[i]);
+                out[2 * i] = (byte) s;
+                out[2 * i + 1] = (byte) (s >> 8);
+            }
+            outPos = 0;
+            outLen = count * 2;
+        }
+    }
+
+    private static boolean tag(byte[] b, int off, String t) {
+        for (int i = 0; i < 4; i++) if (b[off + i] != t.charAt(i)) return false;
+        return true;
+    }
+
+    private static int u16(byte[] b, int off) {
+        return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8;
+    }
+
+    private static long u32(byte[] b, int off) {
+        return ((long) u16(b, off + 2) << 16) | u16(b, off);
+    }
+}
@@ -21,6 +21,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String LIVE_STT_PATH = "/stt/live";
+
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
 
@@ -31,12 +33,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
 
-        if (!StringUtils.hasText(authHeader) || !authHeader.startsWith("Bearer ")) {
+        String token;
+        if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
+            token = authHeader.substring(7);
+        } else if (LIVE_STT_PATH.equals(request.getRequestURI()) && StringUtils.hasText(request.getParameter("token"))) {
+            // 브라우저 WebSocket 은 헤더를 못 붙이므로 /stt/live 핸드셰이크만 쿼리로 받는다
+            token = request.getParameter("token");
+        } else {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String token = authHeader.substring(7);
         try {
             if (jwtUtil.validateToken(token)) {
                 String email = jwtUtil.getEmailFromToken(token);
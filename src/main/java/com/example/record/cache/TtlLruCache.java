@@ -0,0 +1,80 @@
+package com.example.record.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 크기 제한(LRU) + TTL 을 갖는 간단한 인메모리 캐시.
+ * 모든 연산은 synchronized 로 보호되며, 만료 항목은 조회 시점에 정리된다.
+ */
+public class TtlLruCache<K, V> {
+
+    /** 항목이 빠질 때 원인(SIZE: 용량 초과, EXPIRED: TTL 만료) */
+    public enum RemovalCause { SIZE, EXPIRED }
+
+    @FunctionalInterface
+    public interface RemovalListener {
+        void onRemoval(RemovalCause cause);
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final RemovalListener listener;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    public TtlLruCache(int maxEntries, long ttlMillis, RemovalListener listener) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.listener = listener != null ? listener : cause -> {};
+        // accessOrder=true → get 할 때마다 최근 사용으로 이동
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxEntries) {
+                    TtlLruCache.this.listener.onRemoval(RemovalCause.SIZE);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) return null;
+        if (e.expiresAt < System.currentTimeMillis()) {
+            map.remove(key);
+            listener.onRemoval(RemovalCause.EXPIRED);
+            return null;
+        }
+        return e.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    /** 조건에 맞는 키를 모두 제거하고 제거 건수를 돌려준다 */
+    public synchronized int removeIf(Predicate<K> predicate) {
+        int removed = 0;
+        for (Iterator<K> it = map.keySet().iterator(); it.hasNext(); ) {
+            if (predicate.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
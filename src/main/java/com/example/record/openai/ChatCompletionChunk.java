@@ -0,0 +1,31 @@
+package com.example.record.openai;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * /chat/completions (stream: true) 의 SSE 이벤트 하나.
+ * stream_options.include_usage 를 켜면 마지막 조각(choices 비어 있음)에 usage 가 온다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatCompletionChunk(List<Choice> choices, ChatCompletionResponse.Usage usage) implements OpenAiUsage {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Delta delta) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Delta(String content) {}
+
+    /** choices[0].delta.content (없으면 null) */
+    public String content() {
+        if (choices == null || choices.isEmpty()) return null;
+        Delta d = choices.get(0).delta();
+        return d != null ? d.content() : null;
+    }
+
+    @Override
+    public int totalTokens() {
+        return usage != null ? usage.totalTokens() : 0;
+    }
+}
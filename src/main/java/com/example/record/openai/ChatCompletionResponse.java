@@ -0,0 +1,32 @@
+package com.example.record.openai;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/** /chat/completions 응답 중 쓰는 필드만. 나머지 필드는 디코딩하지 않고 건너뛴다 */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatCompletionResponse(List<Choice> choices, Usage usage) implements OpenAiUsage {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Message message) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Message(String content) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Usage(@JsonProperty("total_tokens") int totalTokens) {}
+
+    /** choices[0].message.content (없으면 null) */
+    public String content() {
+        if (choices == null || choices.isEmpty()) return null;
+        Message m = choices.get(0).message();
+        return m != null ? m.content() : null;
+    }
+
+    @Override
+    public int totalTokens() {
+        return usage != null ? usage.totalTokens() : 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.record.openai;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/** /images/generations 응답 중 이미지 URL 만 */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ImageGenerationResponse(List<Image> data) implements OpenAiUsage {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Image(String url) {}
+
+    /** data[0].url (없으면 null) */
+    public String url() {
+        return data == null || data.isEmpty() || data.get(0) == null ? null : data.get(0).url();
+    }
+
+    @Override
+    public int totalTokens() {
+        return 0;  // 이미지 생성은 토큰 사용량을 보고하지 않는다
+    }
+}
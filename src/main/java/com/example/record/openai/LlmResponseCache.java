@@ -0,0 +1,136 @@
+package com.example.record.openai;
+
+import com.example.record.cache.TtlLruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 요청 지문(site:SHA-256)을 키로 하는 OpenAI 응답 캐시.
+ * 1차: 프로세스 내 LRU, 2차: Postgres llm_response_cache 테이블.
+ * 호출 지점마다 켜기/TTL 을 따로 둔다(낮은 temperature 의 구조화 호출만 기본 활성).
+ */
+@Slf4j
+@Component
+public class LlmResponseCache {
+
+    /** 1차 항목: 응답 + 만료 시각(지점 TTL 이 메모리 TTL 보다 짧을 수 있어 함께 보관) */
+    private record Cached(String response, LocalDateTime expiresAt) {}
+
+    private final LlmResponseCacheRepository repository;
+    private final OpenAiCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TtlLruCache<String, Cached> memory;
+
+    public LlmResponseCache(LlmResponseCacheRepository repository,
+                            OpenAiCacheProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.memory = new TtlLruCache<>(properties.getMemoryMaxEntries(),
+                Duration.ofMinutes(properties.getMemoryTtlMinutes()).toMillis(),
+                cause -> Counter.builder("openai.cache.evictions").tag("cause", cause.name().toLowerCase())
+                        .register(meterRegistry).increment());
+        Gauge.builder("openai.cache.memory.size", memory, TtlLruCache::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled(OpenAiCallSite site) {
+        return properties.policy(site) != null;
+    }
+
+    public Optional<String> get(OpenAiCallSite site, String key) {
+        if (!isEnabled(site)) return Optional.empty();
+        LocalDateTime now = LocalDateTime.now();
+
+        Cached c = memory.get(key);
+        if (c != null) {
+            if (c.expiresAt().isAfter(now)) {
+                count(site, "hit", "memory");
+                return Optional.of(c.response());
+            }
+            memory.remove(key);
+        }
+
+        try {
+            Optional<LlmResponseCacheEntry> row = repository.findById(key);
+            if (row.isPresent()) {
+                LlmResponseCacheEntry e = row.get();
+                if (e.getExpiresAt().isAfter(now)) {
+                    memory.put(key, new Cached(e.getResponse(), e.getExpiresAt()));  // 1차로 승격
+                    count(site, "hit", "db");
+                    return Optional.of(e.getResponse());
+                }
+                repository.deleteById(key);
+            }
+        } catch (DataAccessException e) {
+            // 캐시 장애가 호출 자체를 막으면 안 된다 → miss 로 처리
+            log.warn("LLM 캐시 조회 실패(DB): {}", e.getMessage());
+        }
+
+        count(site, "miss", "none");
+        return Optional.empty();
+    }
+
+    public void put(OpenAiCallSite site, String key, String response) {
+        OpenAiCacheProperties.Site policy = properties.policy(site);
+        if (policy == null || response == null) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(policy.getTtlHours());
+        memory.put(key, new Cached(response, expiresAt));
+        try {
+            repository.save(LlmResponseCacheEntry.builder()
+                    .cacheKey(key)
+                    .site(site.tag())
+                    .response(response)
+                    .createdAt(now)
+                    .expiresAt(expiresAt)
+                    .build());
+        } catch (DataAccessException e) {
+            log.warn("LLM 캐시 저장 실패(DB): {}", e.getMessage());
+        }
+    }
+
+    /** 접두어로 삭제(예: "review-analysis:" → 해당 지점 전체). 삭제된 DB 행 수 */
+    public int purge(String prefix) {
+        String p = prefix == null ? "" : prefix;
+        memory.removeIf(k -> k.startsWith(p));
+        return repository.deleteByKeyLike(likePrefix(p));
+    }
+
+    /** 접두어 그대로 일치하는 LIKE 패턴: 와일드카드(%, _)와 이스케이프 문자(\)를 글자로 취급 */
+    static String likePrefix(String prefix) {
+        StringBuilder sb = new StringBuilder(prefix.length() + 1);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') sb.append('\\');
+            sb.append(c);
+        }
+        return sb.append('%').toString();
+    }
+
+    @Scheduled(initialDelayString = "${openai.cache.sweep-ms:3600000}", fixedDelayString = "${openai.cache.sweep-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int n = repository.deleteExpired(LocalDateTime.now());
+            if (n > 0) log.info("만료된 LLM 캐시 {}건 삭제", n);
+        } catch (DataAccessException e) {
+            log.warn("LLM 캐시 정리 실패: {}", e.getMessage());
+        }
+    }
+
+    private void count(OpenAiCallSite site, String result, String tier) {
+        Counter.builder("openai.cache.requests")
+                .tag("site", site.tag()).tag("result", result).tag("tier", tier)
+                .register(meterRegistry).increment();
+    }
+}
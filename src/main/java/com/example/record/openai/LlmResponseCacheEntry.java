@@ -0,0 +1,34 @@
+// LlmResponseCacheEntry: OpenAI 요청 지문(site:SHA-256) → 응답 JSON 을 저장하는 LLM 응답 캐시(2차, 영구) 엔티티입니다.
+
+package com.example.record.openai;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "llm_response_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LlmResponseCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 100)
+    private String cacheKey; // 호출 지점 태그 + ":" + 요청 본문 SHA-256(hex)
+
+    @Column(length = 32, nullable = false)
+    private String site; // OpenAiCallSite.tag
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String response; // OpenAI 응답 JSON 원문
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt; // 호출 지점별 TTL 로 계산
+}
@@ -0,0 +1,25 @@
+// LlmResponseCacheRepository: LLM 응답 캐시(llm_response_cache) 테이블에 접근하는 JPA 리포지토리입니다.
+
+package com.example.record.openai;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface LlmResponseCacheRepository extends JpaRepository<LlmResponseCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    // pattern 은 LlmResponseCache.likePrefix 로 만든다(\ 로 %, _, \ 를 이스케이프한 접두어 + '%')
+    @Query("delete from LlmResponseCacheEntry e where e.cacheKey like :pattern escape '\\'")
+    int deleteByKeyLike(@Param("pattern") String pattern);
+
+    @Modifying
+    @Transactional
+    @Query("delete from LlmResponseCacheEntry e where e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
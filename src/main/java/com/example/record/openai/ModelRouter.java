@@ -0,0 +1,150 @@
+package com.example.record.openai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * 채팅 호출마다 모델을 고른다: 작업 종류(호출 지점) + 입력 토큰 수 → 설정 규칙, 그리고 지점·모델별 최근 지연/실패율.
+ * 짧은 입력은 작은 모델로 빠르게, 긴 입력은 큰 모델로 보내고, 큰 모델이 불안정하면 fallback 으로 돌린다.
+ * <p>
+ * 통계는 호출 지점 + 모델별이다. 원래 긴 요약(stt-summary)의 지연이 짧은 분석 호출의 p95 를 끌어올리지 않게 하기 위해서다.
+ * 표본은 stats-max-age-ms 가 지나면 버린다. fallback 중에도 probe-ratio 만큼은 원래 모델로 보내 새 표본을 모은다.
+ * 그래서 한 번 불안정으로 판정된 모델도 회복하면 다시 쓰인다.
+ * 결정은 openai.router.decisions(site, model, reason) 으로 남는다.
+ */
+@Slf4j
+@Component
+public class ModelRouter {
+
+    private final OpenAiRoutingProperties properties;
+    private final TokenCounter tokenCounter;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;               // ms
+    private final Map<String, ModelStats> stats = new ConcurrentHashMap<>();
+
+    public ModelRouter(OpenAiRoutingProperties properties, TokenCounter tokenCounter, MeterRegistry meterRegistry) {
+        this(properties, tokenCounter, meterRegistry, System::currentTimeMillis);
+    }
+
+    ModelRouter(OpenAiRoutingProperties properties, TokenCounter tokenCounter, MeterRegistry meterRegistry,
+                LongSupplier clock) {
+        this.properties = properties;
+        this.tokenCounter = tokenCounter;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /** body 에 model 이 없으면 골라 넣은 새 본문을 돌려준다(있으면 그대로 = 호출자가 고정) */
+    public Map<String, Object> route(OpenAiCallSite site, Map<String, Object> body) {
+        if (body.get("model") instanceof String explicit) {
+            record(site, explicit, "explicit");
+            return body;
+        }
+        Map<String, Object> routed = new HashMap<>(body);
+        routed.put("model", choose(site, tokenCounter.countInput(body)));
+        return routed;
+    }
+
+    /** 응답 결과 기록(지연 ms, 성공 여부). 지연을 모르면(스트리밍) latencyMs < 0 */
+    public void onResult(OpenAiCallSite site, String model, long latencyMs, boolean success) {
+        stats.computeIfAbsent(key(site, model), k -> new ModelStats(properties.getStatsWindow()))
+                .record(clock.getAsLong(), latencyMs, success);
+    }
+
+    private String choose(OpenAiCallSite site, int inputTokens) {
+        if (!properties.isEnabled()) return decide(site, properties.getDefaultModel(), "default", inputTokens);
+
+        for (OpenAiRoutingProperties.Rule rule : properties.rules(site)) {
+            if (rule.getMaxInputTokens() > 0 && inputTokens > rule.getMaxInputTokens()) continue;
+            String fallback = rule.getFallback();
+            if (fallback != null && !healthy(site, rule.getModel()) && healthy(site, fallback)) {
+                // 일부는 원래 모델로 보내 회복 여부를 확인한다(표본이 없으면 판정이 바뀌지 않는다)
+                if (ThreadLocalRandom.current().nextDouble() < properties.getProbeRatio()) {
+                    return decide(site, rule.getModel(), "probe", inputTokens);
+                }
+                return decide(site, fallback, "fallback", inputTokens);
+            }
+            return decide(site, rule.getModel(), "rule", inputTokens);
+        }
+        return decide(site, properties.getDefaultModel(), "default", inputTokens);
+    }
+
+    private boolean healthy(OpenAiCallSite site, String model) {
+        ModelStats s = stats.get(key(site, model));
+        if (s == null) return true;
+        long since = clock.getAsLong() - properties.getStatsMaxAgeMs();
+        return s.healthy(since, properties.getMinSamples(), properties.getMaxP95Ms(), properties.getMaxErrorRate());
+    }
+
+    private static String key(OpenAiCallSite site, String model) {
+        return site.tag() + "/" + model;
+    }
+
+    private String decide(OpenAiCallSite site, String model, String reason, int inputTokens) {
+        record(site, model, reason);
+        log.debug("모델 라우팅: site={}, inputTokens={}, model={}, reason={}", site.tag(), inputTokens, model, reason);
+        return model;
+    }
+
+    private void record(OpenAiCallSite site, String model, String reason) {
+        Counter.builder("openai.router.decisions")
+                .tag("site", site.tag()).tag("model", model).tag("reason", reason)
+                .register(meterRegistry).increment();
+    }
+
+    // ────────── 지점·모델별 최근 통계 ──────────
+
+    /** 최근 N 건의 지연/성공 고리 버퍼. 판정에는 since 이후 기록만 쓴다 */
+    private static final class ModelStats {
+
+        private final long[] at;
+        private final long[] latency;
+        private final boolean[] failed;
+        private int next;
+        private int count;
+
+        ModelStats(int size) {
+            this.at = new long[Math.max(1, size)];
+            this.latency = new long[at.length];
+            this.failed = new boolean[at.length];
+        }
+
+        synchronized void record(long now, long latencyMs, boolean success) {
+            at[next] = now;
+            latency[next] = latencyMs;
+            failed[next] = !success;
+            next = (next + 1) % at.length;
+            if (count < at.length) count++;
+        }
+
+        synchronized boolean healthy(long since, int minSamples, long maxP95Ms, double maxErrorRate) {
+            int recent = 0;
+            int failures = 0;
+            long[] timed = new long[count];
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (at[i] < since) continue;
+                recent++;
+                if (failed[i]) failures++;
+                else if (latency[i] >= 0) timed[n++] = latency[i];
+            }
+            if (recent < minSamples) return true;
+            if ((double) failures / recent > maxErrorRate) return false;
+            if (n < minSamples) return true;
+
+            long[] sorted = Arrays.copyOf(timed, n);
+            Arrays.sort(sorted);
+            long p95 = sorted[Math.max(0, (int) Math.ceil(0.95 * n) - 1)];
+            return p95 <= maxP95Ms;
+        }
+    }
+}
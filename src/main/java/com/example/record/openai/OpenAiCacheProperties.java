@@ -0,0 +1,44 @@
+package com.example.record.openai;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * openai.cache.* : LLM 응답 캐시 설정.
+ * 호출 지점(OpenAiCallSite.tag)별로 켜고 끄며 TTL 을 정한다. 설정이 없는 지점은 캐시하지 않는다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "openai.cache")
+public class OpenAiCacheProperties {
+
+    private boolean enabled = true;
+
+    /** 1차(메모리) 최대 항목 수 */
+    private int memoryMaxEntries = 1000;
+
+    /** 1차(메모리) 최대 보관 시간. 지점 TTL 이 더 짧으면 그쪽을 따른다 */
+    private long memoryTtlMinutes = 60;
+
+    private Map<String, Site> sites = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Site {
+        private boolean enabled = false;
+        private long ttlHours = 24;
+    }
+
+    /** 이 지점의 캐시 정책(없으면 null = 캐시 안 함) */
+    public Site policy(OpenAiCallSite site) {
+        if (!enabled) return null;
+        Site p = sites.get(site.tag());
+        return (p != null && p.isEnabled() && p.getTtlHours() > 0) ? p : null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.record.openai;
+
+/** OpenAI 호출 지점. 메트릭 태그(site)와 요청 키 접두어, 대기열 우선순위를 정한다 */
+public enum OpenAiCallSite {
+
+    OCR_STRUCTURED("ocr-structured", OpenAiPriority.INTERACTIVE),
+    STT_SUMMARY("stt-summary", OpenAiPriority.SUMMARY),
+    STT_SUMMARY_CHUNK("stt-summary-chunk", OpenAiPriority.SUMMARY),
+    STT_QUESTIONS("stt-questions", OpenAiPriority.SUMMARY),
+    STT_ANALYSIS("stt-analysis", OpenAiPriority.SUMMARY),
+    REVIEW_ANALYSIS("review-analysis", OpenAiPriority.BACKGROUND),
+    IMAGE_GENERATION("image-generation", OpenAiPriority.BACKGROUND);
+
+    private final String tag;
+    private final OpenAiPriority priority;
+
+    OpenAiCallSite(String tag, OpenAiPriority priority) {
+        this.tag = tag;
+        this.priority = priority;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public OpenAiPriority priority() {
+        return priority;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.record.openai;
+
+import com.example.record.resilience.CircuitOpenException;
+import com.example.record.resilience.Resilience;
+import com.example.record.resilience.ResilientEndpoint;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 모든 OpenAI 호출의 단일 진입점.
+ * OpenAiClientConfig 의 공용 WebClient(커넥션 풀 공유)만 사용한다.
+ * 같은 요청(엔드포인트 + 모델/파라미터/메시지)이 동시에 여러 번 들어오면 한 번만 보내고 결과를 나눠 받는다.
+ * 캐시가 켜진 호출 지점은 같은 요청의 이전 응답(llm_response_cache)을 재사용한다.
+ * 실제 전송은 OpenAiRateLimiter 가 모델별 RPM/TPM 예산과 우선순위에 따라 내보낸다.
+ * 채팅 모델은 본문에 고정돼 있지 않으면 ModelRouter 가 호출 지점/입력 크기/모델 상태로 고른다.
+ * 응답은 필요한 필드만 가진 record 로 Netty 버퍼에서 바로 디코딩한다(본문 String/트리를 만들지 않음).
+ */
+@Component
+public class OpenAiGateway {
+
+    private static final String CHAT = "/chat/completions";
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient openAiWebClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter keyWriter;   // 키 계산용: Map 순서와 무관하게 같은 직렬화
+    private final ObjectReader chunkReader; // SSE 조각용: 타입별 역직렬화기를 미리 찾아 둔다
+    private final MeterRegistry meterRegistry;
+    private final LlmResponseCache responseCache;
+    private final OpenAiRateLimiter rateLimiter;
+    private final Resilience resilience;
+    private final ModelRouter modelRouter;
+    private final TokenCounter tokenCounter;
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+
+    public OpenAiGateway(WebClient openAiWebClient,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         LlmResponseCache responseCache,
+                         OpenAiRateLimiter rateLimiter,
+                         Resilience resilience,
+                         ModelRouter modelRouter,
+                         TokenCounter tokenCounter) {
+        this.openAiWebClient = openAiWebClient;
+        this.responseCache = responseCache;
+        this.rateLimiter = rateLimiter;
+        this.resilience = resilience;
+        this.modelRouter = modelRouter;
+        this.tokenCounter = tokenCounter;
+        this.objectMapper = objectMapper;
+        this.keyWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.chunkReader = objectMapper.readerFor(ChatCompletionChunk.class);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("openai.singleflight.inflight", singleFlight, SingleFlight::size).register(meterRegistry);
+    }
+
+    /** /chat/completions → choices[0].message.content (없으면 empty) */
+    public Mono<String> chat(OpenAiCallSite site, Map<String, Object> body) {
+        return post(site, CHAT, modelRouter.route(site, body), ChatCompletionResponse.class)
+                .mapNotNull(ChatCompletionResponse::content);
+    }
+
+    /**
+     * /chat/completions (stream: true) → 도착하는 대로 choices[0].delta.content 조각.
+     * 응답 본문을 모으지 않고 SSE 이벤트 단위로 디코딩한다. "[DONE]" 에서 끝난다
+     * (종료 표시가 JSON 이 아니라 data 는 문자열로 받고 조각마다 ChatCompletionChunk 로 읽는다).
+     * 끝나면(완료/오류/취소) 마지막 조각의 usage 로, 없으면 입력 + 받은 조각을 로컬에서 세어 예산을 정산한다.
+     */
+    public Flux<String> chatStream(OpenAiCallSite site, Map<String, Object> body) {
+        Map<String, Object> streaming = new HashMap<>(modelRouter.route(site, body));
+        streaming.put("stream", true);
+        streaming.put("stream_options", Map.of("include_usage", true));
+        String model = String.valueOf(streaming.get("model"));
+        int estimated = rateLimiter.estimateTokens(streaming);
+        ResilientEndpoint endpoint = resilience.endpoint(Resilience.OPENAI_CHAT, site.tag() + "/" + model);
+
+        return Flux.defer(() -> {
+            AtomicInteger reported = new AtomicInteger();     // 마지막 조각의 usage.total_tokens
+            AtomicInteger completion = new AtomicInteger();   // 받은 조각의 로컬 토큰 수(usage 가 없을 때)
+            AtomicBoolean sent = new AtomicBoolean();          // 예산을 받아 실제로 보냈는지
+
+            return rateLimiter.acquire(model, site.priority(), estimated)
+                    .doOnSuccess(v -> sent.set(true))
+                    .thenMany(endpoint.flux(() -> openAiWebClient.post()
+                            .uri(CHAT)
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .bodyValue(streaming)
+                            .retrieve()
+                            .bodyToFlux(SSE)))
+                    .doOnError(WebClientResponseException.TooManyRequests.class,
+                            e -> rateLimiter.onThrottled(model, e.getHeaders()))
+                    .doOnComplete(() -> modelRouter.onResult(site, model, -1, true))  // 스트림 전체 시간은 지연 통계에서 제외
+                    .doOnError(e -> {
+                        if (countsAgainstModel(e)) modelRouter.onResult(site, model, -1, false);
+                    })
+                    .mapNotNull(ServerSentEvent::data)
+                    .takeWhile(data -> !"[DONE]".equals(data.trim()))
+                    .<String>handle((data, sink) -> {
+                        try {
+                            ChatCompletionChunk chunk = chunkReader.readValue(data);
+                            if (chunk.totalTokens() > 0) reported.set(chunk.totalTokens());
+                            String delta = chunk.content();
+                            if (delta != null && !delta.isEmpty()) {
+                                completion.addAndGet(tokenCounter.count(delta));
+                                sink.next(delta);
+                            }
+                        } catch (IOException e) {
+                            sink.error(e);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (!sent.get()) return;  // 대기 중 취소/시간 초과: 예산을 쓰지 않았다
+                        int actual = reported.get() > 0
+                                ? reported.get()
+                                : tokenCounter.countInput(streaming) + completion.get();
+                        rateLimiter.onResponse(model, HttpHeaders.EMPTY, estimated, actual);
+                    });
+        });
+    }
+
+    /** /images/generations → data[0].url (없으면 empty) */
+    public Mono<String> imageUrl(OpenAiCallSite site, Map<String, Object> body) {
+        return post(site, "/images/generations", body, ImageGenerationResponse.class)
+                .mapNotNull(ImageGenerationResponse::url);
+    }
+
+    /** 요청 지문: site:SHA-256(uri + 키 정렬된 본문 JSON) */
+    public String fingerprint(OpenAiCallSite site, String uri, Map<String, Object> body) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(uri.getBytes(StandardCharsets.UTF_8));
+            md.update(keyWriter.writeValueAsBytes(body));
+            return site.tag() + ":" + HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <R extends OpenAiUsage> Mono<R> post(OpenAiCallSite site, String uri, Map<String, Object> body, Class<R> type) {
+        String key = fingerprint(site, uri, body);
+        if (!responseCache.isEnabled(site)) return send(site, uri, body, key, type);
+
+        // 캐시는 JPA(블로킹)라 Netty 이벤트 루프가 아닌 boundedElastic 에서 조회/저장
+        return Mono.fromCallable(() -> responseCache.get(site, key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(hit -> hit.isPresent()
+                        ? Mono.fromCallable(() -> objectMapper.readValue(hit.get(), type))
+                        : send(site, uri, body, key, type)
+                                .publishOn(Schedulers.boundedElastic())
+                                .doOnNext(res -> {
+                                    try {
+                                        responseCache.put(site, key, objectMapper.writeValueAsString(res));
+                                    } catch (JsonProcessingException ignore) {
+                                        // 직렬화 실패는 캐시만 건너뛴다
+                                    }
+                                }));
+    }
+
+    /**
+     * 시도마다 스케줄러에서 예산을 받은 뒤 전송. 타임아웃/헤징/재시도/서킷은 ResilientEndpoint 가 맡는다
+     * (429·5xx·타임아웃만 재시도, Retry-After 준수. 429 면 스케줄러도 reset 시각까지 해당 모델을 멈춘다).
+     */
+    private <R extends OpenAiUsage> Mono<R> send(OpenAiCallSite site, String uri, Map<String, Object> body,
+                                                 String key, Class<R> type) {
+        String model = String.valueOf(body.getOrDefault("model", "default"));
+        int estimated = rateLimiter.estimateTokens(body);
+
+        boolean chat = CHAT.equals(uri);
+        // 헤지는 같은 요청을 한 번 더 보내 비용이 두 배가 될 수 있다 → 결과가 같아야 하는 채팅만
+        // (캐시가 켜진 지점 또는 temperature 0). 이미지 생성은 비용이 커서 제외
+        boolean hedge = chat && (responseCache.isEnabled(site) || deterministic(body));
+        // 지연 통계/타임아웃은 호출 지점 + 모델별(짧은 구조화 호출과 긴 요약이 p99 를 섞지 않게), 서킷은 서비스 공용
+        ResilientEndpoint endpoint = chat
+                ? resilience.endpoint(Resilience.OPENAI_CHAT, site.tag() + "/" + model)
+                : resilience.endpoint(Resilience.OPENAI_IMAGES);
+
+        return singleFlight.execute(key,
+                () -> endpoint.mono(
+                                () -> rateLimiter.acquire(model, site.priority(), estimated),
+                                () -> {
+                                    long start = System.nanoTime();
+                                    return openAiWebClient.post()
+                                            .uri(uri)
+                                            .bodyValue(body)
+                                            .retrieve()
+                                            .toEntity(type)
+                                            .doOnNext(res -> {
+                                                rateLimiter.onResponse(model, res.getHeaders(), estimated,
+                                                        res.getBody() != null ? res.getBody().totalTokens() : 0);
+                                                if (chat) modelRouter.onResult(site, model,
+                                                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), true);
+                                            })
+                                            .doOnError(WebClientResponseException.TooManyRequests.class,
+                                                    e -> rateLimiter.onThrottled(model, e.getHeaders()));
+                                },
+                                hedge)
+                        // 실패는 재시도까지 끝난 최종 결과로 한 번만(타임아웃 포함)
+                        .doOnError(e -> {
+                            if (chat && countsAgainstModel(e)) modelRouter.onResult(site, model, -1, false);
+                        })
+                        .<Object>mapNotNull(HttpEntity::getBody),
+                coalesced -> Counter.builder("openai.singleflight.calls")
+                        .tag("site", site.tag())
+                        .tag("result", coalesced ? "coalesced" : "leader")
+                        .register(meterRegistry)
+                        .increment())
+                .cast(type);
+    }
+
+    private static boolean deterministic(Map<String, Object> body) {
+        return body.get("temperature") instanceof Number t && t.doubleValue() == 0;
+    }
+
+    /** 요청 자체가 잘못된 4xx(429 제외)와 서킷 차단(엔드포인트 단위)은 모델 상태와 무관 */
+    private static boolean countsAgainstModel(Throwable e) {
+        if (e instanceof CircuitOpenException) return false;
+        if (e instanceof WebClientResponseException w) {
+            int s = w.getStatusCode().value();
+            return s == 429 || s >= 500;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.record.openai;
+
+/** 호출 대기열 우선순위(선언 순서가 곧 우선순위: 앞이 먼저 나간다) */
+public enum OpenAiPriority {
+    INTERACTIVE,   // 사용자가 화면에서 기다리는 OCR 구조화
+    SUMMARY,       // 녹음 후 요약/질문
+    BACKGROUND     // 후기 분석, 이미지 생성 등
+}
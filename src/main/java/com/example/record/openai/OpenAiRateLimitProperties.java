@@ -0,0 +1,43 @@
+package com.example.record.openai;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * openai.rate-limit.* : 모델별 분당 요청(RPM)/토큰(TPM) 예산.
+ * 응답의 x-ratelimit-limit-* 헤더가 오면 그 값이 우선한다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "openai.rate-limit")
+public class OpenAiRateLimitProperties {
+
+    private boolean enabled = true;
+
+    private int defaultRpm = 500;
+    private int defaultTpm = 200_000;
+
+    /** 대기열에서 이보다 오래 기다리면 실패 */
+    private long maxWaitMs = 30_000;
+
+    /** 대기열 점검 주기 */
+    private long tickMs = 50;
+
+    /** 요청에 max_tokens 가 없을 때 응답 토큰 추정치 */
+    private int defaultCompletionTokens = 512;
+
+    private Map<String, Model> models = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Model {
+        private int rpm;
+        private int tpm;
+    }
+}
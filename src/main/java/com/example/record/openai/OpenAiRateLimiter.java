@@ -0,0 +1,271 @@
+package com.example.record.openai;
+
+import com.example.record.resilience.PermitTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OpenAI 송신 스케줄러.
+ * 모델마다 RPM/TPM 토큰 버킷을 두고, 예산이 없으면 호출을 우선순위 대기열에 세워 두었다가
+ * 예산이 차는 대로 INTERACTIVE → SUMMARY → BACKGROUND 순서로 내보낸다.
+ * 응답의 x-ratelimit-* 헤더로 버킷을 서버 기준에 맞추고, 429 를 받으면 reset 시각까지 해당 모델을 멈춘다.
+ */
+@Slf4j
+@Component
+public class OpenAiRateLimiter {
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|s|m|h)");
+
+    private final OpenAiRateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TokenCounter tokenCounter;
+    private final Map<String, ModelBudget> budgets = new ConcurrentHashMap<>();
+    private final Map<OpenAiPriority, AtomicInteger> depth = new EnumMap<>(OpenAiPriority.class);
+    private final Map<OpenAiPriority, Timer> waitTimers = new EnumMap<>(OpenAiPriority.class);
+    private final AtomicLong seq = new AtomicLong();
+    private final ScheduledExecutorService ticker;
+
+    public OpenAiRateLimiter(OpenAiRateLimitProperties properties, MeterRegistry meterRegistry, TokenCounter tokenCounter) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.tokenCounter = tokenCounter;
+
+        for (OpenAiPriority p : OpenAiPriority.values()) {
+            AtomicInteger d = new AtomicInteger();
+            depth.put(p, d);
+            Gauge.builder("openai.scheduler.queue.depth", d, AtomicInteger::get)
+                    .tag("priority", p.name().toLowerCase()).register(meterRegistry);
+            waitTimers.put(p, Timer.builder("openai.scheduler.wait")
+                    .tag("priority", p.name().toLowerCase()).register(meterRegistry));
+        }
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "openai-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        long tick = Math.max(10, properties.getTickMs());
+        ticker.scheduleWithFixedDelay(this::drainAll, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /** 예산이 생길 때까지 기다렸다가 완료되는 Mono. max-wait-ms 를 넘기면 PermitTimeoutException, 구독을 취소하면 대기열에서 빠진다 */
+    public Mono<Void> acquire(String model, OpenAiPriority priority, int estimatedTokens) {
+        if (!properties.isEnabled()) return Mono.empty();
+
+        return Mono.<Void>create(sink -> {
+                    ModelBudget budget = budget(model);
+                    Waiter w = new Waiter(priority, seq.incrementAndGet(), Math.max(1, estimatedTokens), sink, System.nanoTime());
+                    sink.onCancel(() -> budget.cancel(w));
+                    budget.enqueue(w);
+                    budget.drain();
+                })
+                .timeout(Duration.ofMillis(properties.getMaxWaitMs()),
+                        Mono.error(() -> new PermitTimeoutException("OpenAI 호출 대기 시간 초과(" + model + ")")));
+    }
+
+    /** 응답 수신 후: 헤더로 버킷 보정 + 추정/실제 토큰 차이 정산 */
+    public void onResponse(String model, HttpHeaders headers, int estimatedTokens, int actualTokens) {
+        if (!properties.isEnabled()) return;
+        ModelBudget budget = budget(model);
+        budget.adjust(headers, actualTokens > 0 ? estimatedTokens - actualTokens : 0);
+    }
+
+    /** 429 수신: Retry-After 또는 reset 시각까지 이 모델 대기열을 멈춘다 */
+    public void onThrottled(String model, HttpHeaders headers) {
+        if (!properties.isEnabled()) return;
+        long pauseMs = pauseMillis(headers);
+        budget(model).pause(pauseMs);
+        throttled(model, "429");
+        log.warn("OpenAI 429 수신: model={}, {}ms 동안 대기열 정지", model, pauseMs);
+    }
+
+    /** 호출 본문으로 입력+출력 토큰을 추정(입력은 로컬 BPE 로 계산, 메시지당 4토큰 오버헤드) */
+    public int estimateTokens(Map<String, Object> body) {
+        int tokens = tokenCounter.countInput(body);
+        Object max = body.get("max_tokens");
+        tokens += max instanceof Number n ? n.intValue() : properties.getDefaultCompletionTokens();
+        return tokens;
+    }
+
+    private void drainAll() {
+        try {
+            budgets.values().forEach(ModelBudget::drain);
+        } catch (Exception e) {
+            log.warn("OpenAI 대기열 처리 실패: {}", e.getMessage());
+        }
+    }
+
+    private ModelBudget budget(String model) {
+        return budgets.computeIfAbsent(model, m -> {
+            OpenAiRateLimitProperties.Model cfg = properties.getModels().get(m);
+            int rpm = cfg != null && cfg.getRpm() > 0 ? cfg.getRpm() : properties.getDefaultRpm();
+            int tpm = cfg != null && cfg.getTpm() > 0 ? cfg.getTpm() : properties.getDefaultTpm();
+            return new ModelBudget(m, rpm, tpm);
+        });
+    }
+
+    private void throttled(String model, String source) {
+        Counter.builder("openai.scheduler.throttles").tag("model", model).tag("source", source)
+                .register(meterRegistry).increment();
+    }
+
+    /** Retry-After(초) → 없으면 x-ratelimit-reset-requests/tokens 중 긴 쪽 → 없으면 1초 */
+    static long pauseMillis(HttpHeaders headers) {
+        if (headers == null) return 1000;
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return Math.max(1000, (long) (Double.parseDouble(retryAfter.trim()) * 1000));
+            } catch (NumberFormatException ignore) {
+                // HTTP-date 형식은 무시하고 reset 헤더로
+            }
+        }
+        long reset = Math.max(parseDuration(headers.getFirst("x-ratelimit-reset-requests")),
+                parseDuration(headers.getFirst("x-ratelimit-reset-tokens")));
+        return Math.max(1000, reset);
+    }
+
+    /** "6m0s", "1.5s", "20ms" → 밀리초 */
+    static long parseDuration(String s) {
+        if (s == null || s.isBlank()) return 0;
+        Matcher m = DURATION_PART.matcher(s.trim());
+        double ms = 0;
+        while (m.find()) {
+            double v = Double.parseDouble(m.group(1));
+            ms += switch (m.group(2)) {
+                case "ms" -> v;
+                case "s" -> v * 1000;
+                case "m" -> v * 60_000;
+                default -> v * 3_600_000;
+            };
+        }
+        return (long) ms;
+    }
+
+    private static Integer headerInt(HttpHeaders headers, String name) {
+        String v = headers.getFirst(name);
+        if (v == null) return null;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ────────── 모델별 버킷 + 대기열 ──────────
+
+    private record Waiter(OpenAiPriority priority, long seq, int tokens, MonoSink<Void> sink, long enqueuedAt) {}
+
+    private final class ModelBudget {
+
+        private final String model;
+        private int rpm;
+        private int tpm;
+        private double requests;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+        private long pausedUntil = lastRefill;
+        private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+                Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::seq));
+
+        ModelBudget(String model, int rpm, int tpm) {
+            this.model = model;
+            this.rpm = rpm;
+            this.tpm = tpm;
+            this.requests = rpm;
+            this.tokens = tpm;
+        }
+
+        synchronized void enqueue(Waiter w) {
+            queue.add(w);
+            depth.get(w.priority()).incrementAndGet();
+        }
+
+        synchronized void cancel(Waiter w) {
+            if (queue.remove(w)) depth.get(w.priority()).decrementAndGet();
+        }
+
+        void drain() {
+            List<Waiter> released = new ArrayList<>();
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+                while (!queue.isEmpty() && now - pausedUntil >= 0 && requests >= 1) {
+                    Waiter head = queue.peek();
+                    // 한 번에 버킷보다 큰 요청은 버킷이 가득 찼을 때 통과시킨다(영원히 못 나가는 것 방지)
+                    if (tokens < head.tokens() && tokens < tpm) break;
+                    queue.poll();
+                    depth.get(head.priority()).decrementAndGet();
+                    requests -= 1;
+                    tokens -= head.tokens();
+                    released.add(head);
+                }
+            }
+            for (Waiter w : released) {
+                long waited = System.nanoTime() - w.enqueuedAt();
+                waitTimers.get(w.priority()).record(waited, TimeUnit.NANOSECONDS);
+                // 한 tick 이상 기다렸다 = 로컬 예산 때문에 지연됨
+                if (waited > TimeUnit.MILLISECONDS.toNanos(Math.max(10, properties.getTickMs()))) {
+                    throttled(model, "local");
+                }
+                w.sink().success();
+            }
+        }
+
+        synchronized void adjust(HttpHeaders headers, int tokenRefund) {
+            Integer limitReq = headerInt(headers, "x-ratelimit-limit-requests");
+            Integer limitTok = headerInt(headers, "x-ratelimit-limit-tokens");
+            if (limitReq != null && limitReq > 0) rpm = limitReq;
+            if (limitTok != null && limitTok > 0) tpm = limitTok;
+
+            tokens = Math.min(tpm, tokens + tokenRefund);
+
+            Integer remReq = headerInt(headers, "x-ratelimit-remaining-requests");
+            Integer remTok = headerInt(headers, "x-ratelimit-remaining-tokens");
+            if (remReq != null) requests = Math.min(requests, remReq);
+            if (remTok != null) tokens = Math.min(tokens, remTok);
+        }
+
+        synchronized void pause(long millis) {
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            if (until - pausedUntil > 0) pausedUntil = until;
+            requests = Math.min(requests, 0);
+        }
+
+        private void refill(long now) {
+            double minutes = (now - lastRefill) / 60e9;
+            lastRefill = now;
+            requests = Math.min(rpm, requests + rpm * minutes);
+            tokens = Math.min(tpm, tokens + tpm * minutes);
+        }
+    }
+}
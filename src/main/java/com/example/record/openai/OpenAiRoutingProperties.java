@@ -0,0 +1,61 @@
+package com.example.record.openai;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * openai.routing.* : 호출 지점(작업 종류)별 채팅 모델 선택 규칙.
+ * 규칙은 위에서부터 입력 토큰이 max-input-tokens 이하인 첫 항목을 쓴다(0 = 상한 없음).
+ * 고른 모델이 그 지점에서 최근 느리거나 실패가 잦으면 fallback 으로 돌린다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "openai.routing")
+public class OpenAiRoutingProperties {
+
+    private boolean enabled = true;
+
+    /** 규칙이 없거나 맞는 규칙이 없을 때 */
+    private String defaultModel = "gpt-4o-mini";
+
+    /** 지점·모델별 최근 호출 통계 크기 */
+    private int statsWindow = 100;
+
+    /** 이보다 오래된 표본은 판정에서 뺀다 → 표본이 끊겨도 판정이 영원히 남지 않는다 */
+    private long statsMaxAgeMs = 300_000;
+
+    /** fallback 중에도 이 비율은 원래 모델로 보내 회복 여부를 본다 */
+    private double probeRatio = 0.05;
+
+    /** 통계가 이보다 적으면 건강하다고 본다 */
+    private int minSamples = 20;
+
+    /** p95 가 이보다 느리면 fallback */
+    private long maxP95Ms = 20_000;
+
+    /** 실패율이 이보다 높으면 fallback */
+    private double maxErrorRate = 0.2;
+
+    /** 키: OpenAiCallSite.tag() */
+    private Map<String, List<Rule>> sites = new HashMap<>();
+
+    public List<Rule> rules(OpenAiCallSite site) {
+        return sites.getOrDefault(site.tag(), new ArrayList<>());
+    }
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private int maxInputTokens;
+        private String model;
+        private String fallback;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.record.openai;
+
+/** 응답이 보고한 실제 사용 토큰(스케줄러 정산용). 보고하지 않는 엔드포인트는 0 */
+interface OpenAiUsage {
+    int totalTokens();
+}
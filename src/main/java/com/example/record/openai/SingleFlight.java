@@ -0,0 +1,48 @@
+package com.example.record.openai;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키로 동시에 들어온 호출을 하나로 합친다.
+ * 첫 호출(leader)만 실제로 실행하고, 진행 중에 들어온 호출은 그 결과(성공/실패)를 함께 받는다.
+ * 결과는 끝나는 즉시 잊는다(캐시가 아님). 한 구독자가 취소해도 남은 구독자가 있으면 공유 호출은 계속된다.
+ */
+final class SingleFlight<K, V> {
+
+    /** 호출 결과와 함께 이 호출이 합쳐졌는지(coalesced) 여부 */
+    interface Listener {
+        void onCall(boolean coalesced);
+    }
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    Mono<V> execute(K key, Supplier<Mono<V>> call, Listener listener) {
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<V> flight = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return start(k, call);
+            });
+            listener.onCall(!leader[0]);
+            return flight;
+        });
+    }
+
+    int size() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<V> start(K key, Supplier<Mono<V>> call) {
+        Mono<V>[] self = new Mono[1];
+        // cache(): 원본은 한 번만 구독되고, 결과는 진행 중 합류한 모든 구독자에게 재생된다
+        self[0] = Mono.defer(call)
+                .doFinally(signal -> inFlight.remove(key, self[0]))
+                .cache();
+        return self[0];
+    }
+}
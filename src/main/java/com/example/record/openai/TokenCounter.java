@@ -0,0 +1,37 @@
+package com.example.record.openai;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 로컬 BPE 토큰 계산기(o200k_base: gpt-4o 계열과 같은 토크나이저).
+ * 프롬프트 크기 판단, 청크 분할, 모델 라우팅, 송신 스케줄러의 TPM 추정에 쓴다. 인코딩 객체는 스레드 안전하다.
+ */
+@Component
+public class TokenCounter {
+
+    private final Encoding encoding = Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.O200K_BASE);
+
+    public int count(String text) {
+        return text == null || text.isEmpty() ? 0 : encoding.countTokens(text);
+    }
+
+    /** 요청 본문의 입력 토큰(messages[].content + prompt, 메시지당 4토큰 오버헤드) */
+    public int countInput(Map<String, Object> body) {
+        int tokens = 0;
+        if (body.get("messages") instanceof List<?> messages) {
+            for (Object m : messages) {
+                if (m instanceof Map<?, ?> msg && msg.get("content") instanceof String content) {
+                    tokens += 4 + count(content);
+                }
+            }
+        }
+        if (body.get("prompt") instanceof String prompt) tokens += count(prompt);
+        return tokens;
+    }
+}
@@ -1,25 +1,24 @@
 package com.example.record.promptcontrol_w03;
 
+import com.example.record.openai.OpenAiCallSite;
+import com.example.record.openai.OpenAiGateway;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.util.retry.Retry;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class ReviewAnalysisService {
 
-    private final WebClient openAi;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final OpenAiGateway openAi;  // 모델은 후기 길이에 따라 ModelRouter 가 선택
+    private final ObjectMapper mapper;
 
-    public ReviewAnalysisService(WebClient openAiWebClient) {
-        this.openAi = openAiWebClient;
+    public ReviewAnalysisService(OpenAiGateway openAi, ObjectMapper mapper) {
+        this.openAi = openAi;
+        this.mapper = mapper;
     }
 
     /** 모델이 코드펜스/설명을 섞어도 "순수 JSON"만 추출 */
@@ -48,26 +47,19 @@ public class ReviewAnalysisService {
         """.formatted(reviewText);
 
         Map<String, Object> body = Map.of(
-                "model", "gpt-4", // 필요시 gpt-4o-mini 등으로 조정
                 "messages", List.of(Map.of("role", "user", "content", prompt)),
                 "temperature", 0.7
         );
 
-        String response = openAi.post()
-                .uri("/chat/completions")
-                .bodyValue(body)
-                .retrieve()
-                .bodyToMono(String.class)
-                .retryWhen(Retry.backoff(2, Duration.ofSeconds(1)))
+        String content = openAi.chat(OpenAiCallSite.REVIEW_ANALYSIS, body)
+                .defaultIfEmpty("")
                 .block();
 
         try {
-            JsonNode json = mapper.readTree(response);
-            String content = json.at("/choices/0/message/content").asText();
             String jsonOnly = extractJson(content);
             return mapper.readValue(jsonOnly, new TypeReference<>() {});
         } catch (Exception e) {
-            return Map.of("error", "JSON 파싱 실패", "raw", response);
+            return Map.of("error", "JSON 파싱 실패", "raw", String.valueOf(content));
         }
     }
 }
@@ -0,0 +1,93 @@
+package com.example.record.resilience;
+
+/**
+ * 횟수 기반 서킷 브레이커.
+ * CLOSED: 최근 window 건의 실패율이 기준을 넘으면 OPEN.
+ * OPEN: openMs 동안 모든 호출을 거절. 이후 HALF_OPEN 으로 시험 호출 1건만 통과.
+ * HALF_OPEN: 시험 호출이 성공하면 CLOSED, 실패하면 다시 OPEN.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final boolean[] outcomes;   // true = 실패
+    private final int minCalls;
+    private final double failureRate;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int count;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int window, int minCalls, double failureRate, long openMs) {
+        this.outcomes = new boolean[Math.max(1, window)];
+        this.minCalls = Math.max(1, minCalls);
+        this.failureRate = failureRate;
+        this.openNanos = openMs * 1_000_000L;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) return true;
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) return false;
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (probeInFlight) return false;
+        probeInFlight = true;
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset();
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (count >= minCalls && (double) failures / count >= failureRate) open();
+    }
+
+    /** 결과를 판정하지 않는 종료(취소, 호출 측 오류 등): 시험 호출 자리만 돌려준다 */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    synchronized State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) return State.HALF_OPEN;
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (count == outcomes.length) {
+            if (outcomes[next]) failures--;
+        } else {
+            count++;
+        }
+        outcomes[next] = failed;
+        if (failed) failures++;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        probeInFlight = false;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        next = count = failures = 0;
+        probeInFlight = false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.record.resilience;
+
+/** 회로가 열려 있어 호출을 보내지 않고 즉시 실패 */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String endpoint) {
+        super(endpoint + " 호출 일시 중단(최근 실패율 초과)");
+    }
+}
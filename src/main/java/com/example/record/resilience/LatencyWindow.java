@@ -0,0 +1,34 @@
+package com.example.record.resilience;
+
+import java.util.Arrays;
+
+/** 최근 N 건 응답 시간(ms)의 고리 버퍼. 백분위는 조회 시 정렬해서 구한다(N 이 작아 충분히 싸다) */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /** q(0~1) 백분위. 표본이 없으면 -1 */
+    synchronized long percentile(double q) {
+        if (count == 0) return -1;
+        long[] copy = Arrays.copyOf(samples, count);
+        Arrays.sort(copy);
+        int idx = (int) Math.ceil(q * count) - 1;
+        return copy[Math.max(0, Math.min(count - 1, idx))];
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.record.resilience;
+
+/**
+ * 보내기 전 로컬 대기(송신 스케줄러 예산 등)가 시간 안에 끝나지 않음.
+ * 상대 서비스는 호출되지 않았으므로 서킷 판정/재시도 대상이 아니다.
+ */
+public class PermitTimeoutException extends RuntimeException {
+
+    public PermitTimeoutException(String message) {
+        super(message);
+    }
+}
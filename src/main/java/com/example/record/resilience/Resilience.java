@@ -0,0 +1,54 @@
+package com.example.record.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이름별 ResilientEndpoint 레지스트리.
+ * 서킷 브레이커는 서비스(이름) 단위로 공유하고, 지연 통계(적응형 타임아웃/헤징 기준)는 variant 별로 따로 둔다.
+ * 짧은 구조화 호출과 긴 요약 호출이 한 p99 를 같이 쓰면 서로의 타임아웃을 망가뜨리기 때문이다.
+ */
+@Component
+public class Resilience {
+
+    public static final String OPENAI_CHAT = "openai-chat";
+    public static final String OPENAI_IMAGES = "openai-images";
+    public static final String VISION = "vision";
+    public static final String SPEECH = "speech";
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ResilientEndpoint> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public Resilience(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ResilientEndpoint endpoint(String name) {
+        return endpoint(name, null);
+    }
+
+    /** name 의 정책/서킷을 쓰되 지연 통계는 variant(호출 지점, 모델 등)별. 메트릭 태그는 "name:variant" */
+    public ResilientEndpoint endpoint(String name, String variant) {
+        String key = variant == null ? name : name + ":" + variant;
+        return endpoints.computeIfAbsent(key,
+                k -> new ResilientEndpoint(k, properties.policy(name), breaker(name), meterRegistry));
+    }
+
+    private CircuitBreaker breaker(String name) {
+        return breakers.computeIfAbsent(name, n -> {
+            ResilienceProperties.Policy policy = properties.policy(n);
+            CircuitBreaker breaker = new CircuitBreaker(policy.getCircuitWindow(), policy.getCircuitMinCalls(),
+                    policy.getCircuitFailureRate(), policy.getCircuitOpenMs());
+            Gauge.builder("resilience.circuit.state", breaker, b -> b.state().ordinal())  // 0 CLOSED, 1 HALF_OPEN, 2 OPEN
+                    .tag("endpoint", n).register(meterRegistry);
+            return breaker;
+        });
+    }
+}
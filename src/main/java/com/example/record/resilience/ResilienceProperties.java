@@ -0,0 +1,54 @@
+package com.example.record.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * resilience.endpoints.&lt;이름&gt;.* : 외부 AI 호출 지점(openai-chat, openai-images, vision, speech)별 정책.
+ * 설정이 없는 지점은 Policy 기본값을 쓴다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+
+    private Map<String, Policy> endpoints = new HashMap<>();
+
+    public Policy policy(String endpoint) {
+        return endpoints.getOrDefault(endpoint, new Policy());
+    }
+
+    @Getter
+    @Setter
+    public static class Policy {
+        /** 표본이 모이기 전 타임아웃 */
+        private long initialTimeoutMs = 30_000;
+        /** 적응형 타임아웃 = clamp(p99 × multiplier, min, max) */
+        private long minTimeoutMs = 2_000;
+        private long maxTimeoutMs = 60_000;
+        private double timeoutMultiplier = 1.5;
+        /** p95/p99 를 믿기 시작하는 최소 표본 수 */
+        private int minSamples = 20;
+        private int latencyWindow = 200;
+
+        /** p95 만큼 지나도 응답이 없으면 같은 요청을 한 번 더 보낸다(멱등 호출만) */
+        private boolean hedge = false;
+
+        /** 재시도 가능한 오류(429/5xx/타임아웃/연결)만 재시도 */
+        private int maxRetries = 2;
+        private long backoffMs = 500;
+        private long maxBackoffMs = 10_000;
+
+        /** 최근 windowSize 건 중 실패율이 threshold 이상이면 openMs 동안 즉시 실패 */
+        private int circuitWindow = 50;
+        private int circuitMinCalls = 10;
+        private double circuitFailureRate = 0.5;
+        private long circuitOpenMs = 30_000;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.record.resilience;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 외부 호출 지점 하나(openai-chat:stt-summary/gpt-4o-mini, vision 등)의 타임아웃/헤징/재시도/서킷 브레이커.
+ * 타임아웃은 이 지점의 최근 응답 시간 p99 에 맞춰 늘고 줄며, 헤징은 p95 가 지나도 응답이 없을 때만 나간다.
+ * 서킷 브레이커는 같은 서비스(openai-chat 등)의 지점끼리 공유한다.
+ */
+public class ResilientEndpoint {
+
+    /** 블로킹 호출(gRPC 등): 이번 시도에 쓸 타임아웃을 받아 실행 */
+    @FunctionalInterface
+    public interface TimedCall<T> {
+        T call(Duration timeout) throws Exception;
+    }
+
+    private final String name;
+    private final ResilienceProperties.Policy policy;
+    private final LatencyWindow latency;
+    private final CircuitBreaker breaker;
+
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter rejected;
+
+    ResilientEndpoint(String name, ResilienceProperties.Policy policy, CircuitBreaker breaker, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.policy = policy;
+        this.latency = new LatencyWindow(policy.getLatencyWindow());
+        this.breaker = breaker;  // 같은 서비스의 다른 variant 와 공유
+
+        this.retries = Counter.builder("resilience.retries").tag("endpoint", name).register(meterRegistry);
+        this.hedges = Counter.builder("resilience.hedges").tag("endpoint", name).register(meterRegistry);
+        this.rejected = Counter.builder("resilience.circuit.rejected").tag("endpoint", name).register(meterRegistry);
+        Gauge.builder("resilience.timeout", this, e -> e.timeout().toMillis())
+                .tag("endpoint", name).baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    /**
+     * 적응형 타임아웃: clamp(p99 × multiplier, min, max). 표본이 부족하면 initial.
+     * 시간 초과된 시도도 그때 적용한 타임아웃 값으로 기록한다. 빠른 응답만 남으면 p99 가 내려간 채
+     * 느린 호출이 모두 잘려 다시 늘어날 수 없기 때문이다.
+     */
+    public Duration timeout() {
+        if (latency.count() < policy.getMinSamples()) return Duration.ofMillis(policy.getInitialTimeoutMs());
+        long p99 = latency.percentile(0.99);
+        long ms = (long) (p99 * policy.getTimeoutMultiplier());
+        return Duration.ofMillis(Math.max(policy.getMinTimeoutMs(), Math.min(policy.getMaxTimeoutMs(), ms)));
+    }
+
+    /**
+     * 비동기 호출. 시도마다 permit(예: 송신 스케줄러 대기)을 먼저 받고, 그다음에 서킷/타임아웃/지연 측정을 적용한다.
+     * permit 실패(PermitTimeoutException)는 상대 서비스 장애가 아니므로 서킷에 세지 않고 재시도하지도 않는다.
+     * idempotent 이고 정책이 허용하면 p95 후 헤징(헤지 몫의 permit 도 따로 받는다).
+     */
+    public <T> Mono<T> mono(Supplier<Mono<Void>> permit, Supplier<Mono<T>> call, boolean idempotent) {
+        return Mono.defer(() -> permit.get().then(Mono.defer(() -> {
+                    if (!breaker.tryAcquire()) {
+                        rejected.increment();
+                        return Mono.<T>error(new CircuitOpenException(name));
+                    }
+                    Duration hedgeDelay = idempotent && policy.isHedge() ? hedgeDelay() : null;
+                    Mono<T> guarded = hedgeDelay == null ? attempt(call) : hedged(permit, call, hedgeDelay);
+                    return guarded
+                            .doOnSuccess(v -> breaker.onSuccess())
+                            .doOnError(this::judge)
+                            .doOnCancel(breaker::onIgnored);
+                })))
+                .retryWhen(retrySpec());
+    }
+
+    /** 스트리밍 호출: 서킷 브레이커 + 첫 조각까지의 타임아웃만 적용(중간 재시도/헤징 없음) */
+    public <T> Flux<T> flux(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            if (!breaker.tryAcquire()) {
+                rejected.increment();
+                return Flux.<T>error(new CircuitOpenException(name));
+            }
+            return call.get()
+                    .timeout(Mono.delay(timeout()), x -> Mono.never())
+                    .doOnComplete(breaker::onSuccess)
+                    .doOnError(this::judge)
+                    .doOnCancel(breaker::onIgnored);
+        });
+    }
+
+    /** 블로킹 호출(Vision/Speech gRPC). 재시도 가능한 오류만 Retry-After/백오프 후 재시도 */
+    public <T> T call(TimedCall<T> call) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            if (!breaker.tryAcquire()) {
+                rejected.increment();
+                throw new CircuitOpenException(name);
+            }
+            long start = System.nanoTime();
+            Duration limit = timeout();
+            try {
+                T value = call.call(limit);
+                latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                breaker.onSuccess();
+                return value;
+            } catch (Exception e) {
+                Throwable cause = unwrap(e);
+                if (isTimeout(cause)) latency.record(limit.toMillis());
+                judge(cause);
+                if (attempt >= policy.getMaxRetries() || !isRetryable(cause)) throw e;
+                retries.increment();
+                Thread.sleep(retryDelay(cause, attempt).toMillis());
+            }
+        }
+    }
+
+    /**
+     * 재시도할 수 없는 블로킹 호출(입력을 흘려보내는 스트리밍 gRPC 등): 서킷 브레이커만 적용.
+     * 소요 시간이 입력 길이에 비례하므로 지연 통계에도 넣지 않는다.
+     */
+    public <T> T once(TimedCall<T> call) throws Exception {
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            throw new CircuitOpenException(name);
+        }
+        try {
+            T value = call.call(timeout());
+            breaker.onSuccess();
+            return value;
+        } catch (Exception e) {
+            judge(unwrap(e));
+            throw e;
+        }
+    }
+
+    /** Future 를 타임아웃까지 기다린다. 시간 초과 시 취소하고 TimeoutException, 실패는 원인 예외로 */
+    public static <T> T await(Future<T> future, Duration timeout) throws Exception {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    // ────────── 내부 ──────────
+
+    private <T> Mono<T> attempt(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Duration limit = timeout();
+            return call.get()
+                    .timeout(limit)
+                    .doOnSuccess(v -> latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)))
+                    .doOnError(e -> {
+                        if (isTimeout(e)) latency.record(limit.toMillis());
+                    });
+        });
+    }
+
+    /**
+     * 첫 시도와 delay 뒤의 헤지 중 먼저 값을 낸 쪽. 첫 시도가 재시도할 수 없는 오류(4xx 등)로 끝나면
+     * 같은 요청을 다시 보내 봐야 같으므로 대기 중/진행 중인 헤지를 취소하고 그 오류를 바로 낸다.
+     */
+    private <T> Mono<T> hedged(Supplier<Mono<Void>> permit, Supplier<Mono<T>> call, Duration delay) {
+        Sinks.One<Boolean> fatal = Sinks.one();
+        Mono<T> primary = attempt(call)
+                .doOnError(e -> {
+                    if (!isRetryable(e)) fatal.tryEmitValue(true);
+                });
+        Mono<T> hedge = Mono.delay(delay)
+                .then(Mono.defer(permit))
+                .doOnSuccess(x -> hedges.increment())
+                .then(attempt(call))
+                .onErrorResume(PermitTimeoutException.class, e -> Mono.empty())  // 헤지 몫 예산이 없으면 첫 시도만
+                .takeUntilOther(fatal.asMono());
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class, ResilientEndpoint::firstCause);
+    }
+
+    private Duration hedgeDelay() {
+        if (latency.count() < policy.getMinSamples()) return null;
+        return Duration.ofMillis(Math.max(1, latency.percentile(0.95)));
+    }
+
+    private Retry retrySpec() {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable e = signal.failure();
+            long n = signal.totalRetries();
+            if (n >= policy.getMaxRetries() || !isRetryable(e)) return Mono.error(e);
+            retries.increment();
+            return Mono.delay(retryDelay(e, n));
+        }));
+    }
+
+    /** 서킷 판정: 서버/네트워크 장애만 실패, 한도 초과(429)는 무시, 그 외 4xx 는 상대가 살아 있다는 뜻 */
+    private void judge(Throwable e) {
+        if (isRateLimited(e)) breaker.onIgnored();
+        else if (isRetryable(e)) breaker.onFailure();
+        else if (e instanceof CircuitOpenException || e instanceof PermitTimeoutException) breaker.onIgnored();
+        else breaker.onSuccess();
+    }
+
+    private Duration retryDelay(Throwable e, long attempt) {
+        if (e instanceof WebClientResponseException w) {
+            String retryAfter = w.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            if (retryAfter != null) {
+                try {
+                    return Duration.ofMillis((long) (Double.parseDouble(retryAfter.trim()) * 1000));
+                } catch (NumberFormatException ignore) {
+                    // HTTP-date 형식은 백오프로
+                }
+            }
+        }
+        long base = Math.min(policy.getMaxBackoffMs(), policy.getBackoffMs() << Math.min(attempt, 20));
+        return Duration.ofMillis(base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+    }
+
+    static boolean isRetryable(Throwable e) {
+        if (e instanceof PermitTimeoutException) return false;  // 로컬 대기 초과: 다시 줄 서도 같다
+        if (e instanceof WebClientResponseException w) {
+            int s = w.getStatusCode().value();
+            return s == 429 || s == 500 || s == 502 || s == 503 || s == 504;
+        }
+        if (e instanceof WebClientRequestException || e instanceof TimeoutException) return true;
+        if (e instanceof ApiException api) {
+            StatusCode.Code code = api.getStatusCode().getCode();
+            return code == StatusCode.Code.UNAVAILABLE
+                    || code == StatusCode.Code.DEADLINE_EXCEEDED
+                    || code == StatusCode.Code.RESOURCE_EXHAUSTED
+                    || code == StatusCode.Code.INTERNAL;
+        }
+        return false;
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        return e instanceof TimeoutException
+                || e instanceof ApiException api && api.getStatusCode().getCode() == StatusCode.Code.DEADLINE_EXCEEDED;
+    }
+
+    private static boolean isRateLimited(Throwable e) {
+        if (e instanceof WebClientResponseException w) return w.getStatusCode().value() == 429;
+        return e instanceof ApiException api && api.getStatusCode().getCode() == StatusCode.Code.RESOURCE_EXHAUSTED;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable t = e;
+        while ((t instanceof ExecutionException || t instanceof java.util.concurrent.CompletionException)
+                && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /** firstWithValue 가 모두 실패하면 NoSuchElementException 으로 감싼다 → 첫 원인을 꺼내 재시도 판정에 쓴다 */
+    private static Throwable firstCause(NoSuchElementException e) {
+        Throwable cause = e.getCause();
+        if (cause != null) {
+            List<Throwable> all = Exceptions.unwrapMultiple(cause);
+            return all.isEmpty() ? cause : all.get(0);
+        }
+        return e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e;
+    }
+}
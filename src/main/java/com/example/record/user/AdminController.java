@@ -1,16 +1,31 @@
 package com.example.record.user;
 
+import com.example.record.openai.LlmResponseCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/admin")
+@RequiredArgsConstructor
 public class AdminController {
 
+    private final LlmResponseCache llmResponseCache;
+
     // GET /admin/dashboard 요청 시 관리자용 메시지 반환
     @GetMapping("/dashboard")
     public String adminDashboard() {
         return "관리자 전용 페이지입니다.";
     }
+
+    // DELETE /admin/llm-cache?prefix=review-analysis: → 키가 prefix 로 시작하는 LLM 캐시 삭제(빈 값이면 전체)
+    @DeleteMapping("/llm-cache")
+    public Map<String, Object> purgeLlmCache(@RequestParam(defaultValue = "") String prefix) {
+        return Map.of("prefix", prefix, "deleted", llmResponseCache.purge(prefix));
+    }
 }
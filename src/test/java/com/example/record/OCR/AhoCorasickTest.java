@@ -0,0 +1,69 @@
+package com.example.record.OCR;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickTest {
+
+    private static List<String> hits(AhoCorasick ac, List<String> patterns, String text) {
+        List<String> out = new ArrayList<>();
+        ac.search(text, (p, start, end) -> out.add(patterns.get(p) + "@" + start + "-" + end));
+        return out;
+    }
+
+    @Test
+    void reportsEveryOverlappingMatchInEndOrder() {
+        List<String> patterns = List.of("he", "she", "his", "hers");
+        AhoCorasick ac = AhoCorasick.build(patterns);
+
+        // "ushers": she(1..4), he(2..4) 는 같은 위치에서 끝나고, hers(2..6) 는 나중에 끝난다
+        assertThat(hits(ac, patterns, "ushers")).containsExactly("she@1-4", "he@2-4", "hers@2-6");
+    }
+
+    @Test
+    void followsFailureLinksAcrossPartialMatches() {
+        List<String> patterns = List.of("abcd", "bc", "c");
+        AhoCorasick ac = AhoCorasick.build(patterns);
+
+        assertThat(hits(ac, patterns, "abcx abcd")).containsExactly(
+                "bc@1-3", "c@2-3",
+                "bc@6-8", "c@7-8", "abcd@5-9");
+    }
+
+    @Test
+    void reportsPatternThatIsPrefixOfAnother() {
+        List<String> patterns = List.of("올림픽공원", "올림픽공원체조경기장");
+        AhoCorasick ac = AhoCorasick.build(patterns);
+
+        assertThat(hits(ac, patterns, "서울올림픽공원체조경기장"))
+                .containsExactly("올림픽공원@2-7", "올림픽공원체조경기장@2-12");
+    }
+
+    @Test
+    void duplicatePatternsAreBothReported() {
+        List<String> patterns = List.of("bts", "bts");
+        AhoCorasick ac = AhoCorasick.build(patterns);
+
+        assertThat(hits(ac, patterns, "xbtsx")).containsExactly("bts@1-4", "bts@1-4");
+    }
+
+    @Test
+    void emptyPatternAndEmptyTextProduceNoHits() {
+        List<String> patterns = List.of("", "a");
+        AhoCorasick ac = AhoCorasick.build(patterns);
+
+        assertThat(hits(ac, patterns, "")).isEmpty();
+        assertThat(hits(ac, patterns, "bab")).containsExactly("a@1-2");
+        assertThat(ac.patternLength(0)).isZero();
+    }
+
+    @Test
+    void emptyDictionaryMatchesNothing() {
+        AhoCorasick ac = AhoCorasick.build(List.of());
+        assertThat(hits(ac, List.of(), "anything")).isEmpty();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.record.OCR;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GazetteerTest {
+
+    private static GazetteerEntry entry(GazetteerEntry.Kind kind, String name, String alias) {
+        return GazetteerEntry.builder().kind(kind).name(name).alias(alias).build();
+    }
+
+    /** repository 행으로 다시 빌드한 사전 */
+    private static Gazetteer gazetteer(GazetteerEntry... rows) {
+        GazetteerEntryRepository repo = mock(GazetteerEntryRepository.class);
+        when(repo.count()).thenReturn((long) rows.length);
+        when(repo.findLastUpdatedAt()).thenReturn(LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(repo.findAll()).thenReturn(List.of(rows));
+        Gazetteer g = new Gazetteer(repo);
+        g.refreshIfChanged();
+        return g;
+    }
+
+    @Test
+    void defaultsMatchMixedKoreanAndAsciiIgnoringSpacingAndCase() {
+        Gazetteer g = new Gazetteer(mock(GazetteerEntryRepository.class));
+
+        Gazetteer.Hits hits = g.find("bts 월드투어 <YET TO COME in busan>\n부산아시아드 주 경기장 2022.10.15");
+
+        assertThat(hits.artist()).isEqualTo("BTS");
+        assertThat(hits.title()).isEqualTo("Yet to Come in BUSAN");
+        assertThat(hits.venue()).isEqualTo("부산 아시아드 주경기장");
+    }
+
+    @Test
+    void longestMatchWinsPerKind() {
+        Gazetteer g = gazetteer(
+                entry(GazetteerEntry.Kind.VENUE, "올림픽공원", null),
+                entry(GazetteerEntry.Kind.VENUE, "올림픽공원 체조경기장", "올림픽공원체조경기장"),
+                entry(GazetteerEntry.Kind.TITLE, "Yet to Come in BUSAN", null),
+                entry(GazetteerEntry.Kind.TITLE, "Yet to Come in BUSAN", "Yet to Come in"));
+
+        assertThat(g.find("올림픽공원 체조경기장 (KSPO DOME)").venue()).isEqualTo("올림픽공원 체조경기장");
+        assertThat(g.find("장소: 올림픽공원").venue()).isEqualTo("올림픽공원");
+        // 별칭(짧은 표기)만 있어도 정식 명칭으로 돌려준다
+        assertThat(g.find("Yet to Come in 부산").title()).isEqualTo("Yet to Come in BUSAN");
+    }
+
+    @Test
+    void firstMatchWinsWhenLengthsTie() {
+        Gazetteer g = gazetteer(
+                entry(GazetteerEntry.Kind.ARTIST, "IU", null),
+                entry(GazetteerEntry.Kind.ARTIST, "아이유", "IV"));
+
+        assertThat(g.find("IU / IV 콘서트").artist()).isEqualTo("IU");
+        assertThat(g.find("IV / IU 콘서트").artist()).isEqualTo("아이유");
+    }
+
+    @Test
+    void asciiEntriesRequireWordBoundariesInOriginalText() {
+        Gazetteer g = new Gazetteer(mock(GazetteerEntryRepository.class));
+
+        assertThat(g.find("BTSX FAN MEETING").artist()).isNull();
+        assertThat(g.find("ABTS").artist()).isNull();
+        assertThat(g.find("(BTS)").artist()).isEqualTo("BTS");
+        // 한글과 붙어 있는 것은 경계로 본다
+        assertThat(g.find("방탄소년단BTS콘서트").artist()).isEqualTo("BTS");
+    }
+
+    @Test
+    void nfdHangulIsNormalizedBeforeMatching() {
+        Gazetteer g = new Gazetteer(mock(GazetteerEntryRepository.class));
+        String nfd = java.text.Normalizer.normalize("고척스카이돔", java.text.Normalizer.Form.NFD);
+
+        assertThat(g.find(nfd).venue()).isEqualTo("고척스카이돔");
+    }
+
+    @Test
+    void nullOrEmptyTextFindsNothing() {
+        Gazetteer g = new Gazetteer(mock(GazetteerEntryRepository.class));
+
+        assertThat(g.find(null)).isEqualTo(new Gazetteer.Hits(null, null, null));
+        assertThat(g.find("")).isEqualTo(new Gazetteer.Hits(null, null, null));
+    }
+
+    @Test
+    void refreshSkipsRebuildWhenTableIsUnchanged() {
+        GazetteerEntryRepository repo = mock(GazetteerEntryRepository.class);
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(repo.count()).thenReturn(1L);
+        when(repo.findLastUpdatedAt()).thenReturn(at);
+        when(repo.findAll()).thenReturn(List.of(entry(GazetteerEntry.Kind.VENUE, "KSPO DOME", null)));
+        Gazetteer g = new Gazetteer(repo);
+
+        g.refreshIfChanged();
+        assertThat(g.size()).isEqualTo(1);
+        assertThat(g.find("KSPO DOME").venue()).isEqualTo("KSPO DOME");
+
+        g.refreshIfChanged();
+        verify(repo, org.mockito.Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void emptyTableFallsBackToDefaults() {
+        GazetteerEntryRepository repo = mock(GazetteerEntryRepository.class);
+        when(repo.count()).thenReturn(0L);
+        Gazetteer g = new Gazetteer(repo);
+
+        g.refreshIfChanged();
+
+        verify(repo, never()).findAll();
+        assertThat(g.find("잠실주경기장").venue()).isEqualTo("잠실주경기장");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.record.OCR;
+
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.Feature;
+import com.google.cloud.vision.v1.Image;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.cloud.vision.v1.ImageContext;
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 실측 하니스(기본 비활성): 표본 사진 폴더를 원본/전처리 두 가지로 Vision 에 보내 요청 크기와 지연을 비교한다.
+ * OCR_SAMPLE_DIR=<jpg 폴더> GOOGLE_APPLICATION_CREDENTIALS=<키> ./gradlew test --tests ImagePreprocessorVisionLatencyTest -i
+ */
+@EnabledIfEnvironmentVariable(named = "OCR_SAMPLE_DIR", matches = ".+")
+class ImagePreprocessorVisionLatencyTest {
+
+    private static final int ROUNDS = 3;
+
+    @Test
+    void compareRawAndPreprocessedPayloads() throws Exception {
+        List<Path> samples;
+        try (Stream<Path> files = Files.list(Path.of(System.getenv("OCR_SAMPLE_DIR")))) {
+            samples = files.filter(p -> p.toString().toLowerCase().matches(".*\\.(jpe?g|png|heic)$")).sorted().toList();
+        }
+        assertThat(samples).isNotEmpty();
+
+        ImagePreprocessor preprocessor = new ImagePreprocessor(new SimpleMeterRegistry(), true, 2048, false, 0.85f, 60_000, 4);
+        List<Long> rawMs = new ArrayList<>();
+        List<Long> prepMs = new ArrayList<>();
+        long rawBytes = 0, prepBytes = 0;
+
+        try (ImageAnnotatorClient vision = ImageAnnotatorClient.create()) {
+            annotate(vision, ByteString.copyFrom(Files.readAllBytes(samples.get(0))));  // 채널 예열
+
+            for (Path p : samples) {
+                ByteString raw = ByteString.copyFrom(Files.readAllBytes(p));
+                for (int r = 0; r < ROUNDS; r++) {
+                    long t0 = System.nanoTime();
+                    annotate(vision, raw);
+                    rawMs.add((System.nanoTime() - t0) / 1_000_000);
+
+                    long t1 = System.nanoTime();
+                    ByteString prepared = preprocessor.process(raw);  // 전처리 시간 포함
+                    annotate(vision, prepared);
+                    prepMs.add((System.nanoTime() - t1) / 1_000_000);
+                    if (r == 0) {
+                        rawBytes += raw.size();
+                        prepBytes += prepared.size();
+                    }
+                }
+            }
+        } finally {
+            preprocessor.shutdown();
+        }
+
+        System.out.printf("images=%d rounds=%d%n", samples.size(), ROUNDS);
+        System.out.printf("payload  raw=%,d B  preprocessed=%,d B (%.1f%%)%n", rawBytes, prepBytes, 100.0 * prepBytes / rawBytes);
+        System.out.printf("latency  raw p50=%dms p90=%dms | preprocessed p50=%dms p90=%dms%n",
+                pct(rawMs, 50), pct(rawMs, 90), pct(prepMs, 50), pct(prepMs, 90));
+    }
+
+    private static void annotate(ImageAnnotatorClient vision, ByteString bytes) {
+        AnnotateImageRequest req = AnnotateImageRequest.newBuilder()
+                .addFeatures(Feature.newBuilder().setType(Feature.Type.DOCUMENT_TEXT_DETECTION))
+                .setImage(Image.newBuilder().setContent(bytes))
+                .setImageContext(ImageContext.newBuilder().addLanguageHints("ko").addLanguageHints("en"))
+                .build();
+        vision.batchAnnotateImages(List.of(req));
+    }
+
+    private static long pct(List<Long> values, int p) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * p / 100));
+    }
+}
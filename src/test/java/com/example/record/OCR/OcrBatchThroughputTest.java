@@ -0,0 +1,199 @@
+package com.example.record.OCR;
+
+import com.example.record.resilience.Resilience;
+import com.example.record.resilience.ResilienceProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.rpc.ApiCallContext;
+import com.google.api.gax.rpc.UnaryCallable;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.cloud.vision.v1.TextAnnotation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 티켓 N장 가져오기: 한 장씩(/ocr/extract 를 N번) vs /ocr/extract/batch(병렬 + Vision 배치).
+ * Vision/GPT 는 고정 지연 스텁이고, 그 사이의 디스패처/추출/NDJSON 경로는 실제 코드다.
+ * 단위 테스트는 결정적인 것(전부 돌아오는지, 색인, Vision RPC 수)만 본다.
+ * 시간 비교는 환경 변수를 줄 때만 도는 벤치마크로 따로 돌린다(결과는 src/jmh/RESULTS.md):
+ * OCR_BENCH_TICKETS=50 OCR_BENCH_VISION_MS=400 OCR_BENCH_VISION_PER_IMAGE_MS=30 OCR_BENCH_GPT_MS=1500
+ */
+class OcrBatchThroughputTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrBatchThroughputTest.class);
+
+    private static final List<String> OCR_TEXTS = List.of(
+            "BTS <Yet to Come in BUSAN>\n2022년 10월 15일 오후 6시\n부산 아시아드 주경기장\n1층 A구역 14일 3번",
+            "뮤지컬 <레미제라블>\n2023.03.09 19:30\n블루스퀘어 신한카드홀\n1층 B구역 7열 12번",
+            "2023 IU CONCERT\n2023/09/17 6:00 PM\n잠실주경기장\n3층 C구역 22열 8번",
+            "NCT 127 NEO CITY\n2022. 12. 3 PM 5:00\n체조경기장\n3층 42구역 11일 4번");
+
+    private final ScheduledExecutorService clock = Executors.newScheduledThreadPool(4);
+    private final AtomicInteger visionRpcs = new AtomicInteger();
+    private final AtomicInteger gptCalls = new AtomicInteger();
+
+    private volatile int visionMs = 20;
+    private volatile int visionPerImageMs = 0;
+    private volatile int gptMs = 0;
+
+    private VisionBatchDispatcher dispatcher;
+    private OcrService ocrService;
+    private TicketExtractionService extraction;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImageAnnotatorClient vision = mock(ImageAnnotatorClient.class);
+        when(vision.batchAnnotateImagesCallable()).thenReturn(new StubVision());
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ImageAnnotatorClient> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(vision);
+
+        dispatcher = new VisionBatchDispatcher(provider, new Resilience(new ResilienceProperties(), registry),
+                registry, 20, 16, 8 * 1024 * 1024, 30_000);
+        dispatcher.start();
+        OcrResultCache cache = new OcrResultCache(mock(OcrResultCacheRepository.class), registry, false, 1, 1, false, 1);
+        ImagePreprocessor preprocessor = new ImagePreprocessor(registry, false, 2048, false, 0.85f, 5_000, 1);
+        ocrService = new OcrService(dispatcher, cache, preprocessor);
+
+        GptClient gpt = mock(GptClient.class);
+        when(gpt.getStructuredJsonFromPrompt(anyString())).thenAnswer(inv -> {
+            gptCalls.incrementAndGet();
+            Thread.sleep(gptMs);
+            return "{}";
+        });
+        extraction = new TicketExtractionService(gpt,
+                new TicketFieldExtractor(new Gazetteer(mock(GazetteerEntryRepository.class))),
+                new ObjectMapper(), registry, true, "title,date,time,venue,artist,seat", 0.8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+        clock.shutdownNow();
+    }
+
+    @Test
+    void batchReturnsEveryTicketWithFewerVisionCalls() throws Exception {
+        Run run = run(16);
+
+        assertThat(run.items()).hasSize(16).allSatisfy(it -> assertThat(it.error()).isNull());
+        assertThat(run.items().stream().map(OcrBatchService.Item::index).distinct()).hasSize(16);
+        assertThat(run.batchRpcs()).isLessThan(run.sequentialRpcs());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfEnvironmentVariable(named = "OCR_BENCH_TICKETS", matches = "\\d+")
+    void batchThroughputVersusOneByOne() throws Exception {
+        visionMs = env("OCR_BENCH_VISION_MS", 400);
+        visionPerImageMs = env("OCR_BENCH_VISION_PER_IMAGE_MS", 30);
+        gptMs = env("OCR_BENCH_GPT_MS", 1500);
+        int tickets = env("OCR_BENCH_TICKETS", 50);
+
+        Run run = run(tickets);
+
+        log.info("tickets={} vision={}+{}/img ms gpt={} ms (gpt calls={})",
+                tickets, visionMs, visionPerImageMs, gptMs, gptCalls.get());
+        log.info("one-by-one: {} ms ({} tickets/s, {} Vision RPCs)",
+                run.sequentialMs(), String.format("%.2f", tickets * 1000.0 / run.sequentialMs()), run.sequentialRpcs());
+        log.info("batch:      {} ms ({} tickets/s, {} Vision RPCs)",
+                run.batchMs(), String.format("%.2f", tickets * 1000.0 / run.batchMs()), run.batchRpcs());
+        assertThat(run.items()).hasSize(tickets);
+    }
+
+    private record Run(long sequentialMs, int sequentialRpcs, long batchMs, int batchRpcs,
+                       List<OcrBatchService.Item> items) {
+    }
+
+    private Run run(int tickets) throws Exception {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < tickets; i++) {
+            files.add(new MockMultipartFile("files", "t" + i + ".jpg", "image/jpeg",
+                    ("ticket-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // 1) 한 장씩: /ocr/extract 를 순서대로 N번 부르는 것과 같은 경로
+        long t0 = System.nanoTime();
+        for (MultipartFile f : files) {
+            String text = ocrService.extractTextFromImage(f.getInputStream());
+            assertThat(extraction.extractFields(text)).isNotEmpty();
+        }
+        long sequentialMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        int sequentialRpcs = visionRpcs.getAndSet(0);
+
+        // 2) /ocr/extract/batch: 8장 병렬, 동시 요청은 Vision 배치로 묶인다
+        CountDownLatch done = new CountDownLatch(tickets);
+        List<OcrBatchService.Item> items = java.util.Collections.synchronizedList(new ArrayList<>());
+        ObjectMapper counting = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) throws JsonProcessingException {
+                items.add((OcrBatchService.Item) value);
+                done.countDown();
+                return super.writeValueAsString(value);
+            }
+        };
+        OcrBatchService batch = new OcrBatchService(ocrService, extraction, counting, new SimpleMeterRegistry(),
+                8, 100, 300_000);
+
+        long t1 = System.nanoTime();
+        batch.extractAll(files);
+        assertThat(done.await(5, TimeUnit.MINUTES)).isTrue();
+        long batchMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t1);
+        int batchRpcs = visionRpcs.get();
+        return new Run(sequentialMs, sequentialRpcs, batchMs, batchRpcs, List.copyOf(items));
+    }
+
+    /** 배치 크기에 비례하는 고정 지연 후, 요청 바이트("ticket-i")에 맞는 OCR 원문을 돌려주는 Vision */
+    private final class StubVision extends UnaryCallable<BatchAnnotateImagesRequest, BatchAnnotateImagesResponse> {
+        @Override
+        public ApiFuture<BatchAnnotateImagesResponse> futureCall(BatchAnnotateImagesRequest request, ApiCallContext context) {
+            visionRpcs.incrementAndGet();
+            BatchAnnotateImagesResponse.Builder response = BatchAnnotateImagesResponse.newBuilder();
+            request.getRequestsList().forEach(r -> {
+                String id = r.getImage().getContent().toStringUtf8();
+                int i = Integer.parseInt(id.substring("ticket-".length()));
+                response.addResponses(AnnotateImageResponse.newBuilder()
+                        .setFullTextAnnotation(TextAnnotation.newBuilder().setText(OCR_TEXTS.get(i % OCR_TEXTS.size()))));
+            });
+            SettableApiFuture<BatchAnnotateImagesResponse> f = SettableApiFuture.create();
+            long delay = visionMs + (long) visionPerImageMs * request.getRequestsCount();
+            clock.schedule(() -> f.set(response.build()), delay, TimeUnit.MILLISECONDS);
+            return f;
+        }
+    }
+
+    private static int env(String name, int def) {
+        String v = System.getenv(name);
+        return v == null || v.isBlank() ? def : Integer.parseInt(v.trim());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.record.OCR;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OcrJobServiceTest {
+
+    private final OcrJobRepository repository = mock(OcrJobRepository.class);
+    private final OcrService ocrService = mock(OcrService.class);
+    private final TicketExtractionService extraction = mock(TicketExtractionService.class);
+    private OcrJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OcrJobService(repository, ocrService, extraction, new ObjectMapper(),
+                new SimpleMeterRegistry(), 1, 10, 1_000, 60_000, 3_600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void skipsJobClaimedByAnotherInstance() throws Exception {
+        when(repository.findClaimableIds(any(), any(), any(), any())).thenReturn(List.of("job-1"));
+        when(repository.claim(eq("job-1"), any(), any(), any(), any(), any())).thenReturn(0);
+
+        service.requeueUnfinished();
+
+        verify(repository, timeout(1_000)).claim(eq("job-1"), any(), any(), any(), any(), any());
+        verify(ocrService, after(200).never()).extractTextFromImage(any(byte[].class));
+        verify(repository, never()).complete(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void processesClaimedJobAndReleasesLease() throws Exception {
+        OcrJob job = OcrJob.builder()
+                .id("job-1").status(OcrJob.Status.RUNNING).image(new byte[]{1})
+                .createdAt(LocalDateTime.now()).leaseUntil(LocalDateTime.now().plusMinutes(1))
+                .build();
+        when(repository.findClaimableIds(any(), any(), any(), any())).thenReturn(List.of("job-1"));
+        when(repository.claim(eq("job-1"), any(), any(), any(), any(), any())).thenReturn(1);
+        when(repository.findById("job-1")).thenReturn(Optional.of(job));
+        when(ocrService.extractTextFromImage(any(byte[].class))).thenReturn("text");
+        when(extraction.extractPerformanceInfo("text")).thenReturn(new PerformanceInfo());
+
+        service.requeueUnfinished();
+
+        // 결과는 점유할 때 쓴 토큰으로만 쓴다(이미지/점유 해제는 같은 UPDATE)
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        verify(repository, timeout(1_000)).claim(eq("job-1"), any(), any(), any(), any(), owner.capture());
+        verify(repository, timeout(1_000)).complete(eq("job-1"), eq(OcrJob.Status.RUNNING), eq(owner.getValue()),
+                eq(OcrJob.Status.DONE), any(), isNull(), any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void lostLeaseDoesNotNotifySubscribers() throws Exception {
+        OcrJob job = OcrJob.builder()
+                .id("job-1").status(OcrJob.Status.RUNNING).image(new byte[]{1})
+                .createdAt(LocalDateTime.now()).build();
+        when(repository.findClaimableIds(any(), any(), any(), any())).thenReturn(List.of("job-1"));
+        when(repository.claim(eq("job-1"), any(), any(), any(), any(), any())).thenReturn(1);
+        when(repository.findById("job-1")).thenReturn(Optional.of(job));
+        when(repository.complete(any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(ocrService.extractTextFromImage(any(byte[].class))).thenReturn("text");
+        when(extraction.extractPerformanceInfo("text")).thenReturn(new PerformanceInfo());
+        service.subscribe(OcrJob.builder().id("job-1").status(OcrJob.Status.QUEUED).build());
+
+        service.requeueUnfinished();
+        verify(repository, timeout(1_000)).complete(any(), any(), any(), any(), any(), any(), any());
+
+        // 점유를 잃은 워커는 구독자에게 알리지 않는다 → 구독은 남아 DB 확인으로 새 결과를 받는다
+        service.pollListeners();
+        verify(repository).findByIdInAndStatusIn(eq(List.of("job-1")), any());
+    }
+
+    @Test
+    void pollDeliversJobsFinishedOnAnotherInstance() {
+        service.pollListeners();
+        verify(repository, never()).findByIdInAndStatusIn(any(), any());  // 구독이 없으면 조회도 없다
+
+        service.subscribe(OcrJob.builder().id("job-1").status(OcrJob.Status.QUEUED).build());
+        when(repository.findByIdInAndStatusIn(eq(List.of("job-1")), any())).thenReturn(List.of(
+                OcrJob.builder().id("job-1").status(OcrJob.Status.DONE).resultJson("{}").build()));
+
+        service.pollListeners();
+        service.pollListeners();  // 이미 보냈으면 구독이 비워져 다시 조회하지 않는다
+
+        verify(repository, times(1)).findByIdInAndStatusIn(eq(List.of("job-1")),
+                eq(List.of(OcrJob.Status.DONE, OcrJob.Status.FAILED)));
+    }
+
+    @Test
+    void deletesFinishedJobsOlderThanRetention() {
+        LocalDateTime before = LocalDateTime.now();
+        service.deleteExpired();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).deleteFinishedBefore(eq(List.of(OcrJob.Status.DONE, OcrJob.Status.FAILED)), cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before.minusHours(1), LocalDateTime.now().minusHours(1));
+    }
+
+    @Test
+    void leaseExpiresLeaseMsAfterClaim() {
+        when(repository.findClaimableIds(any(), any(), any(), any())).thenReturn(List.of("job-1"));
+
+        LocalDateTime before = LocalDateTime.now();
+        service.requeueUnfinished();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, timeout(1_000)).claim(eq("job-1"), eq(OcrJob.Status.QUEUED), eq(OcrJob.Status.RUNNING),
+                now.capture(), until.capture(), any());
+        assertThat(now.getValue()).isAfterOrEqualTo(before);
+        assertThat(until.getValue()).isEqualTo(now.getValue().plusSeconds(60));
+    }
+}
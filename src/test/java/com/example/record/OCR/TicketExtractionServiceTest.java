@@ -0,0 +1,98 @@
+package com.example.record.OCR;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TicketExtractionServiceTest {
+
+    /** 날짜/시간/장소/제목은 로컬에서 확실하지만 아티스트·좌석은 사전/규칙에 없는 티켓 */
+    private static final String OCR = """
+            Yet to Come in BUSAN
+            2022년 10월 15일 오후 6시
+            부산 아시아드 주경기장
+            스탠딩 R구역 입장번호 152
+            """;
+
+    private final GptClient gpt = mock(GptClient.class);
+    private final TicketFieldExtractor extractor =
+            new TicketFieldExtractor(new Gazetteer(mock(GazetteerEntryRepository.class)));
+
+    private TicketExtractionService service(String requiredFields) {
+        return new TicketExtractionService(gpt, extractor, new ObjectMapper(), new SimpleMeterRegistry(),
+                true, requiredFields, 0.8);
+    }
+
+    @Test
+    void defaultRequiredFieldsFillOptionalFieldsMissingLocally() {
+        when(gpt.getStructuredJsonFromPrompt(anyString()))
+                .thenReturn("{\"artist\":\"방탄소년단\",\"seat\":\"스탠딩 R구역 152번\"}");
+
+        Map<String, String> f = service("title,date,time,venue,artist,seat").extractFields(OCR);
+
+        assertThat(f).containsEntry("artist", "방탄소년단").containsEntry("seat", "스탠딩 R구역 152번");
+        assertThat(f).containsEntry("date", "2022-10-15").containsEntry("time", "18:00");
+
+        // 로컬에서 확실한 필드는 묻지 않는다
+        ArgumentCaptor<String> prompt = ArgumentCaptor.forClass(String.class);
+        verify(gpt).getStructuredJsonFromPrompt(prompt.capture());
+        String keys = prompt.getValue().lines().filter(l -> l.trim().startsWith("키:")).findFirst().orElseThrow();
+        assertThat(keys).contains("artist", "seat").doesNotContain("date", "time", "venue", "title");
+    }
+
+    @Test
+    void unmarkedNumbersAreNotReturnedAsTimeWhenTimeIsOptional() {
+        // 시간 표기가 없는 티켓: "10월"·"3층"·"7열"의 숫자가 시간으로 새어 나오면 안 된다
+        String ocr = """
+                Yet to Come in BUSAN
+                2022년 10월 15일
+                부산 아시아드 주경기장
+                3층 A구역 7열 12번
+                """;
+
+        Map<String, String> f = service("title,date,venue").extractFields(ocr);
+
+        verify(gpt, never()).getStructuredJsonFromPrompt(anyString());
+        assertThat(f).doesNotContainKey("time").containsEntry("date", "2022-10-15");
+    }
+
+    @Test
+    void narrowedRequiredFieldsSkipGptAndLeaveOptionalFieldsEmpty() {
+        Map<String, String> f = service("title,date,time,venue").extractFields(OCR);
+
+        verify(gpt, never()).getStructuredJsonFromPrompt(anyString());
+        assertThat(f).doesNotContainKeys("artist", "seat");
+        assertThat(f).containsEntry("venue", "부산 아시아드 주경기장");
+    }
+
+    @Test
+    void optionalFieldsRideAlongWhenARequiredFieldIsUncertain() {
+        when(gpt.getStructuredJsonFromPrompt(anyString()))
+                .thenReturn("{\"time\":\"18:30\",\"artist\":\"방탄소년단\"}");
+        // 시간에 표기가 없어 신뢰도가 낮다
+        String ocr = OCR.replace("오후 6시", "");
+
+        Map<String, String> f = service("title,date,time,venue").extractFields(ocr + "\n게이트 6");
+
+        assertThat(f).containsEntry("time", "18:30").containsEntry("artist", "방탄소년단");
+    }
+
+    @Test
+    void gptFailureKeepsLocalResult() {
+        when(gpt.getStructuredJsonFromPrompt(anyString())).thenReturn("{\"error\":\"circuit open\"}");
+
+        Map<String, String> f = service("title,date,time,venue,artist,seat").extractFields(OCR);
+
+        assertThat(f).containsEntry("title", "Yet to Come in BUSAN").doesNotContainKeys("artist", "seat");
+    }
+}
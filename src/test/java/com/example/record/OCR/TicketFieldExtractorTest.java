@@ -0,0 +1,120 @@
+package com.example.record.OCR;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TicketFieldExtractorTest {
+
+    private final TicketFieldExtractor extractor =
+            new TicketFieldExtractor(new Gazetteer(mock(GazetteerEntryRepository.class)));
+
+    @Test
+    void extractsAllFieldsFromTypicalTicketInOneScan() {
+        String ocr = """
+                BTS <Yet to Come in BUSAN>
+                2022년 10월 15일 (토) 오후 6시
+                부산 아시아드 주경기장
+                1층 A구역 14일 3번
+                """;
+
+        TicketFieldExtractor.Result r = extractor.extractWithConfidence(ocr);
+
+        assertThat(r.values()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "artist", "BTS",
+                "title", "Yet to Come in BUSAN",
+                "date", "2022-10-15",
+                "time", "18:00",
+                "venue", "부산 아시아드 주경기장",
+                "seat", "1층 A구역 14열 3번"));
+        assertThat(r.confidenceOf("date")).isEqualTo(TicketFieldExtractor.CONF_STRONG);
+        assertThat(r.confidenceOf("time")).isEqualTo(TicketFieldExtractor.CONF_MARKED);
+        assertThat(r.confidenceOf("venue")).isEqualTo(TicketFieldExtractor.CONF_STRONG);
+    }
+
+    @Test
+    void dateGroupAcceptsCommonSeparators() {
+        assertThat(extractor.extract("2023.3.9").get("date")).isEqualTo("2023-03-09");
+        assertThat(extractor.extract("2023-03-09").get("date")).isEqualTo("2023-03-09");
+        assertThat(extractor.extract("2023/12/31").get("date")).isEqualTo("2023-12-31");
+        assertThat(extractor.extract("2023년12월1일").get("date")).isEqualTo("2023-12-01");
+    }
+
+    @Test
+    void invalidMonthOrDayIsNotADate() {
+        assertThat(extractor.extract("2023.13.40")).doesNotContainKey("date");
+    }
+
+    @Test
+    void timeGroupHandlesKoreanAndEnglishMarkers() {
+        assertThat(extractor.extract("공연 오후 7시 30분").get("time")).isEqualTo("19:30");
+        assertThat(extractor.extract("START 6:30 PM").get("time")).isEqualTo("18:30");
+        assertThat(extractor.extract("오전 12시").get("time")).isEqualTo("00:00");
+        assertThat(extractor.extract("19:00 입장").get("time")).isEqualTo("19:00");
+    }
+
+    @Test
+    void markedTimeBeatsEarlierBareNumber() {
+        TicketFieldExtractor.Result r = extractor.extractWithConfidence("게이트 5 오후 8시");
+
+        assertThat(r.values().get("time")).isEqualTo("20:00");
+        assertThat(r.confidenceOf("time")).isEqualTo(TicketFieldExtractor.CONF_MARKED);
+    }
+
+    @Test
+    void bareNumbersAreNeverReturnedAsTime() {
+        assertThat(extractor.extract("입장 게이트 7")).doesNotContainKey("time");
+        assertThat(extractor.extract("10월 공연")).doesNotContainKey("time");
+        assertThat(extractor.extract("7열")).doesNotContainKey("time");
+        assertThat(extractor.extract("3층")).doesNotContainKey("time");
+        assertThat(extractor.extractWithConfidence("2022년 10월 3층 7열").confidenceOf("time")).isZero();
+    }
+
+    @Test
+    void conflictingCandidatesLowerConfidenceButKeepFirst() {
+        TicketFieldExtractor.Result r = extractor.extractWithConfidence("예매일 2022.09.01 공연일 2022.10.15");
+
+        assertThat(r.values().get("date")).isEqualTo("2022-09-01");
+        assertThat(r.confidenceOf("date")).isEqualTo(TicketFieldExtractor.CONF_AMBIGUOUS);
+    }
+
+    @Test
+    void venuePrefixIsPartialButGazetteerHitIsStrong() {
+        TicketFieldExtractor.Result partial = extractor.extractWithConfidence("예술의전당 오페라극장");
+        assertThat(partial.values().get("venue")).isEqualTo("예술의전당 오페라극장");
+        assertThat(partial.confidenceOf("venue")).isEqualTo(TicketFieldExtractor.CONF_PARTIAL);
+
+        TicketFieldExtractor.Result dict = extractor.extractWithConfidence("예술의전당 앞 / 블루스퀘어 신한카드홀");
+        assertThat(dict.values().get("venue")).isEqualTo("블루스퀘어 신한카드홀");
+        assertThat(dict.confidenceOf("venue")).isEqualTo(TicketFieldExtractor.CONF_STRONG);
+    }
+
+    @Test
+    void seatKeepsRowWhenAlreadyCorrect() {
+        assertThat(extractor.extract("2층 B구역 7열 12번").get("seat")).isEqualTo("2층 B구역 7열 12번");
+    }
+
+    @Test
+    void emptyOrNullInputYieldsNothing() {
+        assertThat(extractor.extract(null)).isEmpty();
+        assertThat(extractor.extract("")).isEmpty();
+    }
+
+    @Test
+    void helperConversions() {
+        assertThat(extractor.toIsoDate("2022년 10월 5일")).isEqualTo("2022-10-05");
+        assertThat(extractor.toIsoDate("2022-10-05")).isEqualTo("2022-10-05");
+        assertThat(extractor.toIsoDate("미정")).isEqualTo("미정");
+
+        assertThat(extractor.to24h("오후 6시")).isEqualTo("18:00");
+        assertThat(extractor.to24h("PM 6:30")).isEqualTo("18:30");
+        assertThat(extractor.to24h("12:15 am")).isEqualTo("00:15");
+        assertThat(extractor.to24h("9:05")).isEqualTo("09:05");
+        assertThat(extractor.to24h("저녁")).isEqualTo("저녁");
+
+        assertThat(TicketFieldExtractor.normalizeWhitespace("  a \r\n\t b  c ")).isEqualTo("a b c");
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.record;
+
+import com.example.record.resilience.Resilience;
+import com.example.record.resilience.ResilienceProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiClientConfigTest {
+
+    @Test
+    void responseTimeoutOutlastsLongestOpenAiDeadline() {
+        ResilienceProperties props = new ResilienceProperties();
+        props.getEndpoints().put(Resilience.OPENAI_CHAT, policy(60_000));
+        props.getEndpoints().put(Resilience.OPENAI_IMAGES, policy(90_000));
+        props.getEndpoints().put(Resilience.SPEECH, policy(120_000));  // OpenAI 클라이언트와 무관
+
+        assertThat(OpenAiClientConfig.responseTimeoutMs(props, 5_000)).isEqualTo(95_000);
+    }
+
+    @Test
+    void fallsBackToPolicyDefaultsWithoutConfiguration() {
+        long defaultMax = new ResilienceProperties.Policy().getMaxTimeoutMs();
+
+        assertThat(OpenAiClientConfig.responseTimeoutMs(new ResilienceProperties(), 0)).isEqualTo(defaultMax);
+    }
+
+    private static ResilienceProperties.Policy policy(long maxTimeoutMs) {
+        ResilienceProperties.Policy p = new ResilienceProperties.Policy();
+        p.setMaxTimeoutMs(maxTimeoutMs);
+        return p;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.record.STT;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FfmpegTranscoderTest {
+
+    // ────────── 컨테이너 판별(ffmpeg 불필요) ──────────
+
+    @Test
+    void faststartMp4IsPiped() {
+        byte[] head = boxes(box("ftyp", 24), box("moov", 900), box("mdat", 100_000));
+        assertThat(FfmpegTranscoder.needsSeekableInput(head)).isFalse();
+    }
+
+    @Test
+    void moovAfterMdatNeedsFile() {
+        byte[] head = boxes(box("ftyp", 28), box("free", 8), box("mdat", 200));
+        assertThat(FfmpegTranscoder.needsSeekableInput(head)).isTrue();
+    }
+
+    @Test
+    void largesizeMdatBeforeMoovNeedsFile() {
+        byte[] mdat = new byte[16];
+        System.arraycopy(box("mdat", 1), 0, mdat, 0, 8);  // size=1 → 64비트 largesize 가 뒤따른다
+        mdat[15] = 32;
+        assertThat(FfmpegTranscoder.needsSeekableInput(boxes(box("ftyp", 24), mdat))).isTrue();
+    }
+
+    @Test
+    void moovBeyondSniffWindowNeedsFile() {
+        byte[] head = boxes(box("ftyp", 24), box("free", FfmpegTranscoder.SNIFF_BYTES));
+        assertThat(FfmpegTranscoder.needsSeekableInput(head)).isTrue();
+    }
+
+    @Test
+    void otherContainersArePiped() {
+        assertThat(FfmpegTranscoder.needsSeekableInput("OggS\0\2\0\0\0\0\0\0".getBytes(StandardCharsets.ISO_8859_1))).isFalse();
+        assertThat(FfmpegTranscoder.needsSeekableInput("ID3\4\0\0\0\0\0\0".getBytes(StandardCharsets.ISO_8859_1))).isFalse();
+        assertThat(FfmpegTranscoder.needsSeekableInput(new byte[]{0x1A, 0x45, (byte) 0xDF, (byte) 0xA3, 0, 0, 0, 0})).isFalse();
+        assertThat(FfmpegTranscoder.needsSeekableInput(new byte[3])).isFalse();
+    }
+
+    // ────────── 입장 제어(ffmpeg 불필요) ──────────
+
+    @Test
+    void spoolingDoesNotHoldATranscodeSlot() throws Exception {
+        // 슬롯 1개, 대기열 0: 슬롯을 잡은 채 디스크로 받고 있으면 다른 요청은 바로 거절된다
+        FfmpegTranscoder transcoder = new FfmpegTranscoder(new SimpleMeterRegistry(), "/nonexistent/ffmpeg", 1, 0, 100, 120, 900);
+        PipedOutputStream upload = new PipedOutputStream();
+        PipedInputStream slow = new PipedInputStream(upload, 2 * FfmpegTranscoder.SNIFF_BYTES);
+        try {
+            // non-faststart 앞부분을 보내고 나머지는 아직 오지 않은 느린 업로드
+            upload.write(boxes(box("ftyp", 24), box("mdat", 200)));
+            upload.write(new byte[FfmpegTranscoder.SNIFF_BYTES]);
+            CompletableFuture<Object> spooling = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return transcoder.transcode(slow, s -> s.transferTo(OutputStream.nullOutputStream()));
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+            while (slow.available() > 0) Thread.sleep(10);  // 판별을 마치고 임시 파일로 받는 중
+
+            // 슬롯이 비어 있으므로 거절되지 않고 ffmpeg 실행까지 간다(실행 파일이 없어 IOException)
+            InputStream ogg = new ByteArrayInputStream("OggS\0\2\0\0\0\0\0\0".getBytes(StandardCharsets.ISO_8859_1));
+            assertThatThrownBy(() -> transcoder.transcode(ogg, s -> s.transferTo(OutputStream.nullOutputStream())))
+                    .isInstanceOf(IOException.class)
+                    .isNotInstanceOf(RejectedExecutionException.class);
+
+            upload.close();
+            assertThatThrownBy(() -> spooling.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IOException.class);
+        } finally {
+            transcoder.shutdown();
+        }
+    }
+
+    // ────────── 실제 ffmpeg(PATH 에 있을 때만) ──────────
+
+    /**
+     * ffmpeg 로 moov 가 뒤에 있는 m4a(ffmpeg mp4 muxer 기본값)와 faststart m4a 를 만들어
+     * 파이프 직행(예전 방식)이 실패하는지, 새 경로가 둘 다 16kHz PCM 으로 바꾸는지 확인하고 시간/할당을 출력한다.
+     */
+    @Test
+    @EnabledIf("ffmpegAvailable")
+    void nonFaststartM4aTranscodesThroughTempFile(@TempDir Path dir) throws Exception {
+        int seconds = Integer.parseInt(System.getenv().getOrDefault("STT_BENCH_SECONDS", "30"));
+        Path tail = dir.resolve("moov-at-end.m4a");
+        Path fast = dir.resolve("faststart.m4a");
+        run("ffmpeg", "-hide_banner", "-loglevel", "error", "-f", "lavfi", "-i", "sine=frequency=440:duration=" + seconds,
+                "-c:a", "aac", "-b:a", "64k", tail.toString());
+        run("ffmpeg", "-hide_banner", "-loglevel", "error", "-i", tail.toString(), "-c", "copy",
+                "-movflags", "+faststart", fast.toString());
+
+        byte[] tailBytes = Files.readAllBytes(tail);
+        assertThat(FfmpegTranscoder.needsSeekableInput(tailBytes)).isTrue();
+        assertThat(FfmpegTranscoder.needsSeekableInput(Files.readAllBytes(fast))).isFalse();
+
+        // 예전 방식: non-faststart 를 stdin 으로 → 디먹싱 실패(또는 빈 출력)
+        Process legacy = new ProcessBuilder("ffmpeg", "-hide_banner", "-loglevel", "error", "-i", "pipe:0",
+                "-ar", "16000", "-ac", "1", "-f", "s16le", "pipe:1").start();
+        Thread.ofVirtual().start(() -> {
+            try (var out = legacy.getOutputStream()) {
+                out.write(tailBytes);
+            } catch (IOException ignore) {
+                // ffmpeg 가 먼저 포기
+            }
+        });
+        long legacyPcm = legacy.getInputStream().readAllBytes().length;
+        boolean legacyFailed = legacy.waitFor() != 0 || legacyPcm < seconds * 32_000L / 2;
+        assertThat(legacyFailed).isTrue();
+
+        FfmpegTranscoder transcoder = new FfmpegTranscoder(new SimpleMeterRegistry(), "ffmpeg", 1, 1, 10_000, 120, 900);
+        try {
+            long expected = seconds * 32_000L;
+            for (Path file : new Path[]{fast, tail}) {
+                long allocBefore = allocatedBytes();
+                long t0 = System.nanoTime();
+                long pcm;
+                try (InputStream in = Files.newInputStream(file)) {
+                    pcm = transcoder.transcode(in, s -> s.transferTo(OutputStream.nullOutputStream()));
+                }
+                long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+                System.out.printf("%-16s %,d B in → %,d B PCM, %d ms, caller-thread alloc %,d B%n",
+                        file.getFileName(), Files.size(file), pcm, ms, allocatedBytes() - allocBefore);
+                assertThat(pcm).isBetween(expected - 32_000, expected + 32_000);  // ±1초(인코더 지연/패딩)
+            }
+        } finally {
+            transcoder.shutdown();
+        }
+    }
+
+    static boolean ffmpegAvailable() {
+        try {
+            Process p = new ProcessBuilder("ffmpeg", "-version").redirectErrorStream(true).start();
+            p.getInputStream().readAllBytes();
+            return p.waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void run(String... cmd) throws Exception {
+        Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(p.waitFor()).as(out).isZero();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /** 박스 헤더만(크기 + 타입). 내용은 판별에 필요 없어 0 으로 채운 것으로 본다 */
+    private static byte[] box(String type, int size) {
+        byte[] b = new byte[8];
+        b[0] = (byte) (size >>> 24);
+        b[1] = (byte) (size >>> 16);
+        b[2] = (byte) (size >>> 8);
+        b[3] = (byte) size;
+        System.arraycopy(type.getBytes(StandardCharsets.ISO_8859_1), 0, b, 4, 4);
+        return b;
+    }
+
+    /** 박스들을 선언된 크기대로 이어 붙인 파일 앞부분(최대 SNIFF_BYTES) */
+    private static byte[] boxes(byte[]... headers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] h : headers) {
+            long size = ((h[0] & 0xFFL) << 24) | ((h[1] & 0xFFL) << 16) | ((h[2] & 0xFFL) << 8) | (h[3] & 0xFFL);
+            long body = size == 1 ? 0 : Math.max(0, size - h.length);
+            out.writeBytes(h);
+            for (long i = 0; i < body && out.size() < FfmpegTranscoder.SNIFF_BYTES; i++) out.write(0);
+            if (out.size() >= FfmpegTranscoder.SNIFF_BYTES) break;
+        }
+        byte[] all = out.toByteArray();
+        return all.length > FfmpegTranscoder.SNIFF_BYTES ? Arrays.copyOf(all, FfmpegTranscoder.SNIFF_BYTES) : all;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.record.STT;
+
+import com.example.record.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.gax.rpc.BidiStreamingCallable;
+import com.google.api.gax.rpc.ClientStream;
+import com.google.api.gax.rpc.ResponseObserver;
+import com.google.cloud.speech.v1.SpeechClient;
+import com.google.cloud.speech.v1.SpeechRecognitionAlternative;
+import com.google.cloud.speech.v1.StreamingRecognitionResult;
+import com.google.cloud.speech.v1.StreamingRecognizeRequest;
+import com.google.cloud.speech.v1.StreamingRecognizeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+class LiveSttHandlerTest {
+
+    private final SpeechClient speechClient = mock(SpeechClient.class);
+    private final TranscriptionRepository repo = mock(TranscriptionRepository.class);
+    private final List<ResponseObserver<StreamingRecognizeResponse>> observers = new CopyOnWriteArrayList<>();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    private LiveSttHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BidiStreamingCallable<StreamingRecognizeRequest, StreamingRecognizeResponse> callable = mock(BidiStreamingCallable.class);
+        when(speechClient.streamingRecognizeCallable()).thenReturn(callable);
+        when(callable.splitCall(any())).thenAnswer(inv -> {
+            observers.add(inv.getArgument(0));
+            return mock(ClientStream.class);
+        });
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        handler = new LiveSttHandler(speechClient, repo, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(handler, "languageCode", "ko-KR");
+        ReflectionTestUtils.setField(handler, "maxStreamSeconds", 1);       // 16kHz → 32,000 바이트마다 새 스트림
+        ReflectionTestUtils.setField(handler, "maxSessionSeconds", 60);
+        ReflectionTestUtils.setField(handler, "idleTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(handler, "finalTimeoutMs", 500L);
+        ReflectionTestUtils.setField(handler, "sendTimeLimitMs", 1000);
+        ReflectionTestUtils.setField(handler, "sendBufferBytes", 65536);
+
+        Map<String, Object> attributes = new HashMap<>();
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.getPrincipal()).thenReturn(
+                new UsernamePasswordAuthenticationToken(User.builder().id(1L).build(), null, List.of()));
+        when(session.getUri()).thenReturn(URI.create("ws://localhost/stt/live?sampleRate=16000"));
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenAnswer(inv -> open.get());
+        doAnswer(inv -> {
+            sent.add(((WebSocketMessage<String>) inv.getArgument(0)).getPayload());
+            return null;
+        }).when(session).sendMessage(any());
+        doAnswer(inv -> {
+            open.set(false);
+            return null;
+        }).when(session).close(any(CloseStatus.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown();
+    }
+
+    @Test
+    void errorOnReplacedStreamDoesNotEndSession() throws Exception {
+        handler.afterConnectionEstablished(session);
+        audio(20_000);
+        audio(20_000);  // 한도 초과 → 두 번째 스트림
+        assertThat(observers).hasSize(2);
+
+        observers.get(0).onResponse(fin("첫째"));
+        observers.get(0).onError(new RuntimeException("old stream reset"));
+        Thread.sleep(100);
+
+        assertThat(open).isTrue();
+        verify(repo, never()).save(any());
+        assertThat(sent).noneMatch(m -> m.contains("\"error\""));
+
+        observers.get(1).onResponse(fin("둘째"));
+        handler.handleTextMessage(session, new TextMessage("stop"));
+        observers.get(1).onComplete();
+
+        verify(repo, timeout(2000)).save(argThat(t -> t.getResultText().equals("첫째 둘째")));
+    }
+
+    @Test
+    void errorOnCurrentStreamSavesAndCloses() throws Exception {
+        handler.afterConnectionEstablished(session);
+        audio(3_200);
+        observers.get(0).onResponse(fin("안녕하세요"));
+        observers.get(0).onError(new RuntimeException("UNAVAILABLE"));
+
+        verify(repo, timeout(2000)).save(argThat(t -> t.getResultText().equals("안녕하세요")));
+        verify(session, timeout(2000)).close(CloseStatus.NORMAL);
+        assertThat(sent).anyMatch(m -> m.contains("\"error\""));
+    }
+
+    @Test
+    void sessionLimitEndsSessionWithoutFurtherAudio() throws Exception {
+        ReflectionTestUtils.setField(handler, "maxSessionSeconds", 1);
+        handler.afterConnectionEstablished(session);
+        observers.get(0).onResponse(fin("한도"));
+
+        // 오디오가 더 오지 않아도 타이머가 끝낸다
+        verify(session, timeout(3000)).close(CloseStatus.NORMAL);
+        verify(repo).save(argThat(t -> t.getResultText().equals("한도")));
+    }
+
+    @Test
+    void audioIdleEndsSessionEvenIfTextFramesArrive() throws Exception {
+        ReflectionTestUtils.setField(handler, "idleTimeoutMs", 300L);
+        handler.afterConnectionEstablished(session);
+        audio(3_200);
+        observers.get(0).onResponse(fin("유휴"));
+        for (int i = 0; i < 3; i++) {
+            handler.handleTextMessage(session, new TextMessage("ping"));  // 컨테이너 유휴 타이머만 갱신
+            Thread.sleep(50);
+        }
+
+        verify(session, timeout(2000)).close(CloseStatus.NORMAL);
+        verify(repo).save(argThat(t -> t.getResultText().equals("유휴")));
+    }
+
+    private void audio(int bytes) {
+        handler.handleBinaryMessage(session, new BinaryMessage(new byte[bytes]));
+    }
+
+    private static StreamingRecognizeResponse fin(String text) {
+        return StreamingRecognizeResponse.newBuilder()
+                .addResults(StreamingRecognitionResult.newBuilder()
+                        .setIsFinal(true)
+                        .addAlternatives(SpeechRecognitionAlternative.newBuilder().setTranscript(text)))
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.record.STT;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PolyphaseResamplerTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {8_000, 11_025, 22_050, 32_000, 44_100, 48_000})
+    void outputLengthMatchesRateRatio(int inRate) {
+        short[] out = resample(inRate, tone(inRate, 440, 2.0, 8000), 1000);
+
+        assertThat(out.length).isBetween(32_000 - 2, 32_000 + 2);  // 2초 @16k
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {8_000, 44_100, 48_000})
+    void dcLevelPassesThrough(int inRate) {
+        float[] dc = new float[inRate];
+        Arrays.fill(dc, 1000f);
+        short[] out = resample(inRate, dc, 997);
+
+        // 필터 지연(앞부분 상승) 이후는 입력 레벨 그대로
+        for (int i = 200; i < out.length - 200; i++) assertThat((double) out[i]).isCloseTo(1000, within(5.0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {22_050, 44_100, 48_000})
+    void passbandToneKeepsAmplitudeAndPitch(int inRate) {
+        short[] out = resample(inRate, tone(inRate, 1000, 1.0, 8000), 4096);
+
+        short[] steady = Arrays.copyOfRange(out, 400, out.length - 400);
+        assertThat(rms(steady)).isCloseTo(8000 / Math.sqrt(2), within(8000 / Math.sqrt(2) * 0.03));
+        // 1kHz @16k → 한 주기 16 샘플 → 양의 방향 영점 교차가 초당 약 1000번
+        assertThat(risingZeroCrossings(steady) / (steady.length / 16_000.0)).isCloseTo(1000, within(5.0));
+    }
+
+    @Test
+    void toneAboveNyquistIsAttenuated() {
+        // 48k 의 12kHz 는 16k 로 내리면 4kHz 로 접혀 들어온다 → 저역 통과 필터가 막아야 한다
+        short[] out = resample(48_000, tone(48_000, 12_000, 1.0, 8000), 4096);
+
+        short[] steady = Arrays.copyOfRange(out, 400, out.length - 400);
+        assertThat(rms(steady)).isLessThan(8000 / Math.sqrt(2) * 0.01);  // -40dB 이하
+    }
+
+    @Test
+    void chunkingDoesNotChangeOutput() {
+        float[] in = tone(44_100, 440, 0.5, 12_000);
+        assertThat(resample(44_100, in, 1)).isEqualTo(resample(44_100, in, in.length));
+        assertThat(resample(44_100, in, 333)).isEqualTo(resample(44_100, in, in.length));
+    }
+
+    @Test
+    void clipsInsteadOfWrapping() {
+        float[] loud = new float[8_000];
+        Arrays.fill(loud, 40_000f);
+        short[] out = resample(8_000, loud, 8_000);
+
+        assertThat(out[out.length / 2]).isEqualTo(Short.MAX_VALUE);
+    }
+
+    @Test
+    void onlyStandardRatesAreCachedAcrossInstances() {
+        new PolyphaseResampler(44_100, 16_000);
+        int cached = PolyphaseResampler.cachedFilters();
+
+        PolyphaseResampler odd = new PolyphaseResampler(44_099, 16_000);
+        new PolyphaseResampler(47_999, 16_000);
+        new PolyphaseResampler(44_100, 16_000);
+
+        assertThat(PolyphaseResampler.cachedFilters()).isEqualTo(cached);
+        float[] in = tone(44_099, 440, 0.1, 1000);
+        assertThat(odd.process(in, in.length)).isPositive();
+    }
+
+    private static short[] resample(int inRate, float[] in, int chunk) {
+        PolyphaseResampler r = new PolyphaseResampler(inRate, 16_000);
+        short[] all = new short[in.length * 16_000 / inRate + 16];
+        int total = 0;
+        for (int off = 0; off < in.length; off += chunk) {
+            int n = Math.min(chunk, in.length - off);
+            float[] part = Arrays.copyOfRange(in, off, off + n);
+            int got = r.process(part, n);
+            System.arraycopy(r.output(), 0, all, total, got);
+            total += got;
+        }
+        return Arrays.copyOf(all, total);
+    }
+
+    private static float[] tone(int rate, double hz, double seconds, double amplitude) {
+        float[] x = new float[(int) (rate * seconds)];
+        for (int i = 0; i < x.length; i++) x[i] = (float) (amplitude * Math.sin(2 * Math.PI * hz * i / rate));
+        return x;
+    }
+
+    private static double rms(short[] x) {
+        double sum = 0;
+        for (short s : x) sum += (double) s * s;
+        return Math.sqrt(sum / x.length);
+    }
+
+    private static int risingZeroCrossings(short[] x) {
+        int n = 0;
+        for (int i = 1; i < x.length; i++) if (x[i - 1] < 0 && x[i] >= 0) n++;
+        return n;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.record.STT;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SttServiceStitchTest {
+
+    @Test
+    void dropsRepeatedBoundaryWordsOfOverlappingSegment() {
+        String text = SttService.stitch(
+                List.of("오늘 공연은 정말 좋았고 마지막 곡이", "마지막 곡이 가장 기억에 남아요"),
+                List.of(false, true));
+
+        assertThat(text).isEqualTo("오늘 공연은 정말 좋았고 마지막 곡이 가장 기억에 남아요");
+    }
+
+    @Test
+    void boundaryMatchIgnoresPunctuationAndCase() {
+        String text = SttService.stitch(
+                List.of("we sang the Encore.", "encore together, all night"),
+                List.of(false, true));
+
+        assertThat(text).isEqualTo("we sang the Encore. together, all night");
+    }
+
+    @Test
+    void nonOverlappingSegmentsAreJoinedAsIs() {
+        // 무음에서 자른 구간은 겹치지 않는다: 같은 단어가 이어져도 지우지 않는다
+        String text = SttService.stitch(
+                List.of("박수 박수", "박수 소리가 컸다"),
+                List.of(false, false));
+
+        assertThat(text).isEqualTo("박수 박수 박수 소리가 컸다");
+    }
+
+    @Test
+    void keepsNextWordsWhenBoundaryDoesNotMatch() {
+        String text = SttService.stitch(
+                List.of("첫 번째 구간", "완전히 다른 시작"),
+                List.of(false, true));
+
+        assertThat(text).isEqualTo("첫 번째 구간 완전히 다른 시작");
+    }
+
+    @Test
+    void overlapIsLimitedToTwelveWords() {
+        String repeated = "a b c d e f g h i j k l m";  // 13 단어
+        String text = SttService.stitch(List.of(repeated, repeated), List.of(false, true));
+
+        // 13 단어 전체는 겹침으로 보지 않는다(최대 12) → 그대로 이어진다
+        assertThat(text.split(" ")).hasSize(26);
+    }
+
+    @Test
+    void skipsBlankSegments() {
+        String text = SttService.stitch(
+                List.of("앞 구간 끝", "  ", "끝 다음 구간"),
+                List.of(false, true, true));
+
+        assertThat(text).isEqualTo("앞 구간 끝 다음 구간");
+    }
+}
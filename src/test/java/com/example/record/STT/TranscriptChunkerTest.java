@@ -0,0 +1,75 @@
+package com.example.record.STT;
+
+import com.example.record.openai.TokenCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptChunkerTest {
+
+    private final TokenCounter tokens = new TokenCounter();
+    private final TranscriptChunker chunker = new TranscriptChunker(tokens);
+
+    @Test
+    void shortTextIsOneChunk() {
+        assertThat(chunker.split("첫 문장입니다. 두 번째 문장입니다.", 1000))
+                .containsExactly("첫 문장입니다. 두 번째 문장입니다.");
+    }
+
+    @Test
+    void cutsOnlyAtSentenceBoundariesWithinTheLimit() {
+        String text = sentences(40);
+        List<String> chunks = chunker.split(text, 60);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(c -> {
+            assertThat(tokens.count(c)).isLessThanOrEqualTo(60);
+            assertThat(c).endsWith(".");
+        });
+        assertThat(String.join(" ", chunks)).isEqualTo(text);
+    }
+
+    @Test
+    void appendingTextKeepsEarlierChunks() {
+        List<String> before = chunker.split(sentences(30), 50);
+        List<String> after = chunker.split(sentences(30) + " 덧붙인 문장입니다. 하나 더 있습니다.", 50);
+
+        assertThat(after.subList(0, before.size() - 1)).isEqualTo(before.subList(0, before.size() - 1));
+    }
+
+    @Test
+    void sentenceLongerThanLimitIsSplitByWords() {
+        StringBuilder longSentence = new StringBuilder();
+        for (int i = 0; i < 200; i++) longSentence.append("단어").append(i).append(' ');
+        String text = longSentence.toString().trim();
+
+        List<String> chunks = chunker.split(text, 40);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(c -> assertThat(tokens.count(c)).isLessThanOrEqualTo(40));
+        assertThat(String.join(" ", chunks)).isEqualTo(text);
+    }
+
+    @Test
+    void newlinesAreBoundariesAndBlankLinesVanish() {
+        assertThat(chunker.split("첫 줄\n\n\n둘째 줄\n", 3))
+                .containsExactly("첫 줄", "둘째 줄");
+    }
+
+    @Test
+    void emptyTextHasNoChunks() {
+        assertThat(chunker.split("", 100)).isEmpty();
+        assertThat(chunker.split("   \n ", 100)).isEmpty();
+    }
+
+    private static String sentences(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append("오늘 ").append(i).append("번째 이야기는 공연장 분위기에 관한 것입니다.");
+        }
+        return sb.toString();
+    }
+}
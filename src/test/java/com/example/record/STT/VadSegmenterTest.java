@@ -0,0 +1,120 @@
+package com.example.record.STT;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VadSegmenterTest {
+
+    private final VadSegmenter segmenter = new VadSegmenter();
+
+    @BeforeEach
+    void setUp() {
+        // 30ms 프레임, 무음 300ms(10프레임) 이상에서 자르기, 구간 1~3초, 강제 절단 시 300ms 겹침
+        ReflectionTestUtils.setField(segmenter, "frameMs", 30);
+        ReflectionTestUtils.setField(segmenter, "silenceDb", -40.0);
+        ReflectionTestUtils.setField(segmenter, "minSilenceMs", 300);
+        ReflectionTestUtils.setField(segmenter, "minSegmentSeconds", 1);
+        ReflectionTestUtils.setField(segmenter, "maxSegmentSeconds", 3);
+        ReflectionTestUtils.setField(segmenter, "overlapMs", 300);
+    }
+
+    @Test
+    void cutsInTheMiddleOfSilenceOnceMinSegmentIsReached() throws Exception {
+        List<VadSegmenter.Segment> segments = split(new Pcm()
+                .tone(1500).silence(600)
+                .tone(1500).silence(600));
+
+        assertThat(segments).hasSize(2);
+        // 1.5초 음성 + 무음 300ms 에서 조건 충족 → 무음 구간(지금까지 10프레임)의 가운데(150ms)에서 자른다
+        assertThat(segments.get(0).startMs()).isZero();
+        assertThat(segments.get(0).durationMs()).isEqualTo(1650);
+        assertThat(segments.get(0).overlapsPrevious()).isFalse();
+        assertThat(lastSampleIsSilent(segments.get(0))).isTrue();
+        // 남은 무음 + 다음 음성 + 무음 절반: 150 + 300 + 1500 + 150
+        assertThat(segments.get(1).startMs()).isEqualTo(1650);
+        assertThat(segments.get(1).durationMs()).isEqualTo(2100);
+        assertThat(segments.get(1).overlapsPrevious()).isFalse();
+        // 끝의 무음 조각은 음성이 없어 버린다
+        assertThat(segments).extracting(VadSegmenter.Segment::index).containsExactly(0, 1);
+    }
+
+    @Test
+    void pausesBeforeMinSegmentDoNotCut() throws Exception {
+        List<VadSegmenter.Segment> segments = split(new Pcm()
+                .tone(300).silence(450)
+                .tone(300).silence(300));
+
+        assertThat(segments).hasSize(1);
+        assertThat(segments.get(0).durationMs()).isEqualTo(1200);  // 1350ms 에서 무음 절반(150ms) 앞
+    }
+
+    @Test
+    void forcesCutAtMaxSegmentAndOverlapsTheNextOne() throws Exception {
+        List<VadSegmenter.Segment> segments = split(new Pcm().tone(7000));
+
+        assertThat(segments).extracting(VadSegmenter.Segment::startMs).containsExactly(0L, 2700L, 5400L);
+        assertThat(segments).extracting(VadSegmenter.Segment::durationMs).containsExactly(3000L, 3000L, 1600L);
+        assertThat(segments).extracting(VadSegmenter.Segment::overlapsPrevious).containsExactly(false, true, true);
+        assertThat(segments).allSatisfy(s -> assertThat(s.durationMs()).isLessThanOrEqualTo(3000));
+    }
+
+    @Test
+    void silenceOnlyProducesNoSegments() throws Exception {
+        assertThat(split(new Pcm().silence(5000))).isEmpty();
+        assertThat(split(new Pcm())).isEmpty();
+    }
+
+    @Test
+    void quietNoiseBelowThresholdCountsAsSilence() throws Exception {
+        // -40dBFS 보다 작은 잡음(진폭 100 ≈ -50dBFS)은 음성이 아니다
+        assertThat(split(new Pcm().tone(2000, 100))).isEmpty();
+    }
+
+    private List<VadSegmenter.Segment> split(Pcm pcm) throws Exception {
+        List<VadSegmenter.Segment> out = new ArrayList<>();
+        segmenter.split(new ByteArrayInputStream(pcm.bytes()), out::add);
+        return out;
+    }
+
+    private static boolean lastSampleIsSilent(VadSegmenter.Segment s) {
+        byte[] b = s.pcm();
+        return b[b.length - 1] == 0 && b[b.length - 2] == 0;
+    }
+
+    /** 16kHz mono s16le 신호 조립 */
+    private static final class Pcm {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long sample;
+
+        Pcm tone(int ms) {
+            return tone(ms, 8000);
+        }
+
+        Pcm tone(int ms, int amplitude) {
+            for (int i = 0; i < ms * 16; i++, sample++) {
+                short v = (short) (amplitude * Math.sin(2 * Math.PI * 440 * sample / 16000.0));
+                out.write(v & 0xff);
+                out.write((v >> 8) & 0xff);
+            }
+            return this;
+        }
+
+        Pcm silence(int ms) {
+            out.writeBytes(new byte[ms * 32]);
+            sample += ms * 16L;
+            return this;
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.record.STT;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WavDecoderTest {
+
+    @Test
+    void mono16kPassesThroughUnchanged() throws IOException {
+        byte[] pcm = samples(1600, 1);
+        byte[] out = decode(new Wav(16_000, 1).data(pcm).bytes()).orElseThrow();
+
+        assertThat(out).isEqualTo(pcm);
+    }
+
+    @Test
+    void stereoIsAveragedToMono() throws IOException {
+        // L=1000, R=3000 → 2000
+        ByteBuffer b = ByteBuffer.allocate(4 * 100).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 100; i++) b.putShort((short) 1000).putShort((short) 3000);
+        byte[] out = decode(new Wav(16_000, 2).data(b.array()).bytes()).orElseThrow();
+
+        assertThat(out).hasSize(200);
+        ByteBuffer r = ByteBuffer.wrap(out).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 100; i++) assertThat(r.getShort()).isEqualTo((short) 2000);
+    }
+
+    @Test
+    void resamples48kStereoTo16k() throws IOException {
+        byte[] out = decode(new Wav(48_000, 2).data(samples(48_000, 2)).bytes()).orElseThrow();
+
+        assertThat(out.length / 2).isBetween(15_998, 16_002);
+    }
+
+    @Test
+    void skipsUnknownAndOddSizedChunksBeforeFmtAndData() throws IOException {
+        byte[] pcm = samples(800, 1);
+        byte[] wav = new Wav(16_000, 1)
+                .chunkBeforeFmt("LIST", "INFOISFT".getBytes(StandardCharsets.US_ASCII))
+                .chunkBeforeData("junk", new byte[5])     // 홀수 크기 → 1바이트 패딩
+                .data(pcm).bytes();
+
+        assertThat(decode(wav)).hasValueSatisfying(out -> assertThat(out).isEqualTo(pcm));
+    }
+
+    @Test
+    void acceptsWaveFormatExtensiblePcm() throws IOException {
+        byte[] pcm = samples(800, 1);
+        assertThat(decode(new Wav(16_000, 1).extensible().data(pcm).bytes()))
+                .hasValueSatisfying(out -> assertThat(out).isEqualTo(pcm));
+    }
+
+    @Test
+    void streamingSizeReadsToEnd() throws IOException {
+        byte[] pcm = samples(800, 1);
+        byte[] wav = new Wav(16_000, 1).data(pcm).dataSize(0xFFFFFFFFL).bytes();
+
+        assertThat(decode(wav)).hasValueSatisfying(out -> assertThat(out).isEqualTo(pcm));
+    }
+
+    @Test
+    void truncatedDataYieldsWhatArrived() throws IOException {
+        byte[] pcm = samples(800, 1);
+        byte[] wav = new Wav(16_000, 1).data(pcm).bytes();
+        byte[] cut = Arrays.copyOf(wav, wav.length - 600);
+
+        assertThat(decode(cut)).hasValueSatisfying(out -> assertThat(out).hasSize(pcm.length - 600));
+    }
+
+    @Test
+    void dataBeforeFmtGoesToFfmpegAndRewinds() throws IOException {
+        byte[] wav = new Wav(16_000, 1).dataFirst().data(samples(100, 1)).bytes();
+        assertRejectedAndRewound(wav);
+    }
+
+    @Test
+    void truncatedHeaderGoesToFfmpegAndRewinds() throws IOException {
+        byte[] wav = new Wav(16_000, 1).data(samples(100, 1)).bytes();
+        assertRejectedAndRewound(Arrays.copyOf(wav, 12 + 8 + 10));  // fmt 도중 끝남
+        assertRejectedAndRewound(Arrays.copyOf(wav, 6));
+    }
+
+    @Test
+    void outOfRangeHeaderValuesGoToFfmpeg() throws IOException {
+        assertRejectedAndRewound(new Wav(96_000, 1).data(samples(100, 1)).bytes());
+        assertRejectedAndRewound(new Wav(4_000, 1).data(samples(100, 1)).bytes());
+        assertRejectedAndRewound(new Wav(Integer.MAX_VALUE, 1).data(samples(100, 1)).bytes());  // u32 0x7FFFFFFF
+        assertRejectedAndRewound(new Wav(16_000, 9).data(samples(100, 9)).bytes());
+        assertRejectedAndRewound(new Wav(16_000, 0xFFFF).data(new byte[64]).bytes());
+        assertRejectedAndRewound(new Wav(16_000, 1).bits(24).data(new byte[300]).bytes());
+    }
+
+    @Test
+    void hugeLeadingChunkGoesToFfmpeg() throws IOException {
+        byte[] wav = new Wav(16_000, 1)
+                .chunkBeforeFmt("LIST", new byte[WavDecoder.MARK_LIMIT])
+                .data(samples(100, 1)).bytes();
+        assertRejectedAndRewound(wav);
+    }
+
+    @Test
+    void nonRiffInputGoesToFfmpeg() throws IOException {
+        assertRejectedAndRewound("ID3\u0004\0\0\0\0\0\0\0\0\0\0\0\0".getBytes(StandardCharsets.ISO_8859_1));
+        assertRejectedAndRewound(new byte[0]);
+    }
+
+    // ────────── 도우미 ──────────
+
+    private static Optional<byte[]> decode(byte[] wav) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(wav), WavDecoder.MARK_LIMIT);
+        Optional<InputStream> pcm = WavDecoder.open(in);
+        if (pcm.isEmpty()) return Optional.empty();
+        try (InputStream s = pcm.get()) {
+            return Optional.of(s.readAllBytes());
+        }
+    }
+
+    /** 거절되면 스트림이 처음 위치로 돌아와 원본 그대로 읽혀야 한다(ffmpeg 로 넘길 수 있게) */
+    private static void assertRejectedAndRewound(byte[] wav) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(wav), WavDecoder.MARK_LIMIT);
+        assertThat(WavDecoder.open(in)).isEmpty();
+        assertThat(in.readAllBytes()).isEqualTo(wav);
+    }
+
+    /** 프레임 수 × 채널의 s16le 램프 신호 */
+    private static byte[] samples(int frames, int channels) {
+        ByteBuffer b = ByteBuffer.allocate(frames * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < frames * channels; i++) b.putShort((short) ((i * 37) % 20_000 - 10_000));
+        return b.array();
+    }
+
+    /** RIFF/WAVE 조립기 */
+    private static final class Wav {
+        private final int sampleRate;
+        private final int channels;
+        private int bits = 16;
+        private boolean extensible;
+        private boolean dataFirst;
+        private byte[] data = new byte[0];
+        private Long dataSize;
+        private final ByteArrayOutputStream beforeFmt = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream beforeData = new ByteArrayOutputStream();
+
+        Wav(int sampleRate, int channels) {
+            this.sampleRate = sampleRate;
+            this.channels = channels;
+        }
+
+        Wav bits(int bits) {
+            this.bits = bits;
+            return this;
+        }
+
+        Wav extensible() {
+            this.extensible = true;
+            return this;
+        }
+
+        Wav dataFirst() {
+            this.dataFirst = true;
+            return this;
+        }
+
+        Wav data(byte[] data) {
+            this.data = data;
+            return this;
+        }
+
+        Wav dataSize(long size) {
+            this.dataSize = size;
+            return this;
+        }
+
+        Wav chunkBeforeFmt(String id, byte[] body) {
+            chunk(beforeFmt, id, body.length, body);
+            return this;
+        }
+
+        Wav chunkBeforeData(String id, byte[] body) {
+            chunk(beforeData, id, body.length, body);
+            return this;
+        }
+
+        byte[] bytes() {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            body.writeBytes("WAVE".getBytes(StandardCharsets.US_ASCII));
+            ByteArrayOutputStream dataChunk = new ByteArrayOutputStream();
+            chunk(dataChunk, "data", dataSize != null ? dataSize : data.length, data);
+            if (dataFirst) body.writeBytes(dataChunk.toByteArray());
+            body.writeBytes(beforeFmt.toByteArray());
+            chunk(body, "fmt ", extensible ? 40 : 16, fmt());
+            body.writeBytes(beforeData.toByteArray());
+            if (!dataFirst) body.writeBytes(dataChunk.toByteArray());
+
+            ByteArrayOutputStream riff = new ByteArrayOutputStream();
+            riff.writeBytes("RIFF".getBytes(StandardCharsets.US_ASCII));
+            riff.writeBytes(le32(body.size()));
+            riff.writeBytes(body.toByteArray());
+            return riff.toByteArray();
+        }
+
+        private byte[] fmt() {
+            ByteBuffer f = ByteBuffer.allocate(extensible ? 40 : 16).order(ByteOrder.LITTLE_ENDIAN);
+            f.putShort((short) (extensible ? 0xFFFE : 1));
+            f.putShort((short) channels);
+            f.putInt(sampleRate);
+            f.putInt(sampleRate * channels * bits / 8);
+            f.putShort((short) (channels * bits / 8));
+            f.putShort((short) bits);
+            if (extensible) {
+                f.putShort((short) 22).putShort((short) bits).putInt(0);
+                f.putShort((short) 1);  // SubFormat = KSDATAFORMAT_SUBTYPE_PCM
+            }
+            return f.array();
+        }
+
+        private static void chunk(ByteArrayOutputStream out, String id, long size, byte[] body) {
+            out.writeBytes(id.getBytes(StandardCharsets.US_ASCII));
+            out.writeBytes(le32(size));
+            out.writeBytes(body);
+            if ((body.length & 1) == 1) out.write(0);
+        }
+
+        private static byte[] le32(long v) {
+            return new byte[]{(byte) v, (byte) (v >> 8), (byte) (v >> 16), (byte) (v >> 24)};
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.record.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlLruCacheTest {
+
+    private final List<TtlLruCache.RemovalCause> removals = new ArrayList<>();
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(2, 60_000, removals::add);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");          // a 를 최근 사용으로 → b 가 가장 오래됨
+        cache.put("c", 3);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(removals).containsExactly(TtlLruCache.RemovalCause.SIZE);
+    }
+
+    @Test
+    void overwritingKeyDoesNotEvict() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(2, 60_000, removals::add);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("a", 10);
+
+        assertThat(cache.get("a")).isEqualTo(10);
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(removals).isEmpty();
+    }
+
+    @Test
+    void expiredEntryIsRemovedOnRead() throws InterruptedException {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(10, 30, removals::add);
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        Thread.sleep(60);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(removals).containsExactly(TtlLruCache.RemovalCause.EXPIRED);
+    }
+
+    @Test
+    void putRefreshesTtl() throws InterruptedException {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(10, 80, null);
+        cache.put("a", 1);
+        Thread.sleep(50);
+        cache.put("a", 2);
+        Thread.sleep(50);
+
+        assertThat(cache.get("a")).isEqualTo(2);
+    }
+
+    @Test
+    void removeIfCountsRemovedKeys() {
+        TtlLruCache<String, Integer> cache = new TtlLruCache<>(10, 60_000, null);
+        cache.put("ocr:1", 1);
+        cache.put("ocr:2", 2);
+        cache.put("stt:1", 3);
+
+        assertThat(cache.removeIf(k -> k.startsWith("ocr:"))).isEqualTo(2);
+        assertThat(cache.get("stt:1")).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.record.openai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LlmResponseCacheTest {
+
+    @Test
+    void likePrefixEscapesWildcardsAndEscapeChar() {
+        assertThat(LlmResponseCache.likePrefix("review-analysis:")).isEqualTo("review-analysis:%");
+        assertThat(LlmResponseCache.likePrefix("stt_analysis:")).isEqualTo("stt\\_analysis:%");
+        assertThat(LlmResponseCache.likePrefix("%")).isEqualTo("\\%%");
+        assertThat(LlmResponseCache.likePrefix("a\\b")).isEqualTo("a\\\\b%");
+        assertThat(LlmResponseCache.likePrefix("")).isEqualTo("%");
+    }
+
+    @Test
+    void purgePassesEscapedPatternToRepository() {
+        LlmResponseCacheRepository repo = mock(LlmResponseCacheRepository.class);
+        LlmResponseCache cache = new LlmResponseCache(repo, new OpenAiCacheProperties(), new SimpleMeterRegistry());
+
+        cache.purge("%");
+        cache.purge(null);
+
+        verify(repo).deleteByKeyLike("\\%%");
+        verify(repo).deleteByKeyLike("%");
+    }
+}
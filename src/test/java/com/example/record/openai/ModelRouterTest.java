@@ -0,0 +1,72 @@
+package com.example.record.openai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelRouterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private OpenAiRoutingProperties properties;
+    private ModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenAiRoutingProperties();
+        properties.setMinSamples(5);
+        properties.setMaxP95Ms(1_000);
+        properties.setStatsMaxAgeMs(60_000);
+        properties.setProbeRatio(0);
+        OpenAiRoutingProperties.Rule rule = new OpenAiRoutingProperties.Rule();
+        rule.setModel("gpt-4o");
+        rule.setFallback("gpt-4o-mini");
+        properties.getSites().put(OpenAiCallSite.STT_ANALYSIS.tag(), List.of(rule));
+        properties.getSites().put(OpenAiCallSite.STT_SUMMARY.tag(), List.of(rule));
+        router = new ModelRouter(properties, new TokenCounter(), registry, now::get);
+    }
+
+    @Test
+    void slowSiteDoesNotMarkModelUnhealthyForOtherSites() {
+        // 긴 요약은 원래 느리다: 그 지점에서만 fallback
+        for (int i = 0; i < 5; i++) router.onResult(OpenAiCallSite.STT_SUMMARY, "gpt-4o", 15_000, true);
+
+        assertThat(model(OpenAiCallSite.STT_SUMMARY)).isEqualTo("gpt-4o-mini");
+        assertThat(model(OpenAiCallSite.STT_ANALYSIS)).isEqualTo("gpt-4o");
+    }
+
+    @Test
+    void unhealthyPrimaryIsUsedAgainOnceSamplesExpire() {
+        for (int i = 0; i < 5; i++) router.onResult(OpenAiCallSite.STT_ANALYSIS, "gpt-4o", -1, false);
+        assertThat(model(OpenAiCallSite.STT_ANALYSIS)).isEqualTo("gpt-4o-mini");
+
+        now.addAndGet(60_001);  // 새 표본 없이 시간만 흘러도 판정이 풀린다
+
+        assertThat(model(OpenAiCallSite.STT_ANALYSIS)).isEqualTo("gpt-4o");
+    }
+
+    @Test
+    void probesReachUnhealthyPrimaryAndItsRecoveryRestoresRouting() {
+        properties.setProbeRatio(1.0);
+        for (int i = 0; i < 5; i++) router.onResult(OpenAiCallSite.STT_ANALYSIS, "gpt-4o", 5_000, true);
+
+        assertThat(model(OpenAiCallSite.STT_ANALYSIS)).isEqualTo("gpt-4o");
+        assertThat(registry.get("openai.router.decisions").tag("reason", "probe").counter().count()).isEqualTo(1);
+
+        // 프로브 결과가 빨라지면 창이 갈리며 정상 판정으로 돌아온다
+        properties.setProbeRatio(0);
+        for (int i = 0; i < 100; i++) router.onResult(OpenAiCallSite.STT_ANALYSIS, "gpt-4o", 800, true);
+        assertThat(model(OpenAiCallSite.STT_ANALYSIS)).isEqualTo("gpt-4o");
+        assertThat(registry.get("openai.router.decisions").tag("reason", "rule").counter().count()).isEqualTo(1);
+    }
+
+    private String model(OpenAiCallSite site) {
+        return (String) router.route(site, Map.of("messages", List.of(Map.of("role", "user", "content", "hi")))).get("model");
+    }
+}
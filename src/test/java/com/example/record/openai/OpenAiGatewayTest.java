@@ -0,0 +1,90 @@
+package com.example.record.openai;
+
+import com.example.record.resilience.Resilience;
+import com.example.record.resilience.ResilienceProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OpenAiGatewayTest {
+
+    private static final Map<String, Object> BODY = Map.of(
+            "model", "gpt-4o-mini",
+            "messages", List.of(Map.of("role", "user", "content", "공연 후기를 요약해 주세요")));
+
+    private final OpenAiRateLimiter rateLimiter = mock(OpenAiRateLimiter.class);
+    private final TokenCounter tokenCounter = new TokenCounter();
+
+    @Test
+    void streamSettlesWithReportedUsage() {
+        OpenAiGateway gateway = gateway(sse(
+                "{\"choices\":[{\"delta\":{\"content\":\"좋은\"}}]}",
+                "{\"choices\":[{\"delta\":{\"content\":\" 공연\"}}]}",
+                "{\"choices\":[],\"usage\":{\"total_tokens\":42}}",
+                "[DONE]"));
+
+        List<String> deltas = gateway.chatStream(OpenAiCallSite.STT_SUMMARY, BODY).collectList().block();
+
+        assertThat(deltas).containsExactly("좋은", " 공연");
+        verify(rateLimiter).onResponse(eq("gpt-4o-mini"), any(HttpHeaders.class), eq(500), eq(42));
+    }
+
+    @Test
+    void streamWithoutUsageSettlesWithLocalCount() {
+        OpenAiGateway gateway = gateway(sse(
+                "{\"choices\":[{\"delta\":{\"content\":\"좋은\"}}]}",
+                "{\"choices\":[{\"delta\":{\"content\":\" 공연\"}}]}",
+                "[DONE]"));
+
+        gateway.chatStream(OpenAiCallSite.STT_SUMMARY, BODY).blockLast();
+
+        int expected = tokenCounter.countInput(BODY) + tokenCounter.count("좋은") + tokenCounter.count(" 공연");
+        verify(rateLimiter).onResponse(eq("gpt-4o-mini"), any(HttpHeaders.class), eq(500), eq(expected));
+    }
+
+    @Test
+    void streamCancelledBeforePermitDoesNotSettle() {
+        OpenAiGateway gateway = gateway(sse("[DONE]"));
+        when(rateLimiter.acquire(any(), any(), anyInt())).thenReturn(Mono.never());
+
+        gateway.chatStream(OpenAiCallSite.STT_SUMMARY, BODY).subscribe().dispose();
+
+        verify(rateLimiter, never()).onResponse(any(), any(), anyInt(), anyInt());
+    }
+
+    private static WebClient sse(String... events) {
+        StringBuilder body = new StringBuilder();
+        for (String e : events) body.append("data: ").append(e).append("\n\n");
+        return WebClient.builder().exchangeFunction(req -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .body(body.toString()).build())).build();
+    }
+
+    private OpenAiGateway gateway(WebClient web) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        when(rateLimiter.acquire(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(rateLimiter.estimateTokens(any())).thenReturn(500);
+        ModelRouter router = mock(ModelRouter.class);
+        when(router.route(any(), any())).thenAnswer(inv -> inv.getArgument(1));
+        return new OpenAiGateway(web, new ObjectMapper(), registry, mock(LlmResponseCache.class), rateLimiter,
+                new Resilience(new ResilienceProperties(), registry), router, tokenCounter);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.record.openai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiRateLimiterTest {
+
+    @Test
+    void parsesOpenAiResetHeaderFormats() {
+        assertThat(OpenAiRateLimiter.parseDuration("1m30s")).isEqualTo(90_000);
+        assertThat(OpenAiRateLimiter.parseDuration("250ms")).isEqualTo(250);
+        assertThat(OpenAiRateLimiter.parseDuration("6m0s")).isEqualTo(360_000);
+        assertThat(OpenAiRateLimiter.parseDuration("1.5s")).isEqualTo(1_500);
+        assertThat(OpenAiRateLimiter.parseDuration("1h2m")).isEqualTo(3_720_000);
+        assertThat(OpenAiRateLimiter.parseDuration(" 20ms ")).isEqualTo(20);
+    }
+
+    @Test
+    void missingOrUnknownFormatIsZero() {
+        assertThat(OpenAiRateLimiter.parseDuration(null)).isZero();
+        assertThat(OpenAiRateLimiter.parseDuration("")).isZero();
+        assertThat(OpenAiRateLimiter.parseDuration("soon")).isZero();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.record.openai;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final List<Boolean> coalesced = new CopyOnWriteArrayList<>();
+
+    private Mono<String> call(String key, Sinks.One<String> upstream) {
+        return flights.execute(key, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream.asMono();
+        }, coalesced::add);
+    }
+
+    @Test
+    void concurrentCallersShareOneUpstreamCall() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+
+        call("k", upstream).subscribe(first::set);
+        call("k", upstream).subscribe(second::set);
+        assertThat(flights.size()).isEqualTo(1);
+
+        upstream.tryEmitValue("answer");
+
+        assertThat(first.get()).isEqualTo("answer");
+        assertThat(second.get()).isEqualTo("answer");
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(coalesced).containsExactly(false, true);
+        assertThat(flights.size()).isZero();  // 끝나면 잊는다
+    }
+
+    @Test
+    void differentKeysDoNotCoalesce() {
+        Sinks.One<String> a = Sinks.one();
+        Sinks.One<String> b = Sinks.one();
+        call("a", a).subscribe();
+        call("b", b).subscribe();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(coalesced).containsExactly(false, false);
+        a.tryEmitValue("x");
+        b.tryEmitValue("y");
+    }
+
+    @Test
+    void errorIsSharedButNotCached() {
+        Sinks.One<String> failing = Sinks.one();
+        AtomicReference<Throwable> e1 = new AtomicReference<>();
+        AtomicReference<Throwable> e2 = new AtomicReference<>();
+        call("k", failing).subscribe(v -> {}, e1::set);
+        call("k", failing).subscribe(v -> {}, e2::set);
+
+        failing.tryEmitError(new IllegalStateException("429"));
+
+        assertThat(e1.get()).hasMessage("429");
+        assertThat(e2.get()).isSameAs(e1.get());
+        assertThat(flights.size()).isZero();
+
+        // 실패 뒤 같은 키는 upstream 을 다시 부른다
+        assertThat(call("k", okSink("retry")).block(Duration.ofSeconds(1))).isEqualTo("retry");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void oneSubscriberCancellingDoesNotCancelTheSharedCall() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicReference<String> survivor = new AtomicReference<>();
+
+        Disposable quitter = call("k", upstream).subscribe();
+        call("k", upstream).subscribe(survivor::set);
+        quitter.dispose();
+
+        upstream.tryEmitValue("done");
+
+        assertThat(survivor.get()).isEqualTo("done");
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void leaderErrorFromSupplierPropagates() {
+        Mono<String> mono = flights.execute("k", () -> {
+            throw new IllegalArgumentException("bad body");
+        }, coalesced::add);
+
+        assertThatThrownBy(() -> mono.block(Duration.ofSeconds(1))).hasMessageContaining("bad body");
+        assertThat(flights.size()).isZero();
+    }
+
+    private static Sinks.One<String> okSink(String v) {
+        Sinks.One<String> s = Sinks.one();
+        s.tryEmitValue(v);
+        return s;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.record.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MS = 50;
+
+    /** window 4, 최소 4건, 실패율 50% */
+    private final CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, OPEN_MS);
+
+    private void calls(boolean... failed) {
+        for (boolean f : failed) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            if (f) breaker.onFailure();
+            else breaker.onSuccess();
+        }
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        calls(true, true, true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        calls(false, true, false, true);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        calls(true, false, false, false);   // 25%
+        calls(false);                       // 첫 실패가 창 밖으로 → 0%
+        calls(true);                        // 25%
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbeAndClosesOnSuccess() throws InterruptedException {
+        calls(true, true, true, true);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        Thread.sleep(OPEN_MS + 20);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();    // 시험 호출
+        assertThat(breaker.tryAcquire()).isFalse();   // 동시에 두 번째는 거절
+
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        // 닫히면 창을 비운다: 실패 3건으로는 다시 열리지 않는다
+        calls(true, true, true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopens() throws InterruptedException {
+        calls(true, true, true, true);
+        Thread.sleep(OPEN_MS + 20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void ignoredProbeFreesTheSlot() throws InterruptedException {
+        calls(true, true, true, true);
+        Thread.sleep(OPEN_MS + 20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onIgnored();   // 취소 등: 판정 없이 자리만 반납
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.record.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResilientEndpointTest {
+
+    private SimpleMeterRegistry registry;
+    private ResilienceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new ResilienceProperties();
+        ResilienceProperties.Policy policy = new ResilienceProperties.Policy();
+        policy.setMaxRetries(2);
+        policy.setBackoffMs(1);
+        policy.setMaxBackoffMs(2);
+        policy.setCircuitMinCalls(3);
+        policy.setCircuitWindow(4);
+        properties.getEndpoints().put("test", policy);
+    }
+
+    @Test
+    void permitTimeoutIsNeitherRetriedNorCountedByTheBreaker() {
+        ResilientEndpoint endpoint = new Resilience(properties, registry).endpoint("test");
+        AtomicInteger permits = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> endpoint.mono(
+                    () -> Mono.<Void>error(new PermitTimeoutException("대기 초과"))
+                            .doOnSubscribe(s -> permits.incrementAndGet()),
+                    () -> Mono.fromCallable(calls::incrementAndGet),
+                    false).block())
+                    .isInstanceOf(PermitTimeoutException.class);
+        }
+
+        assertThat(permits).hasValue(5);  // 재시도 없음
+        assertThat(calls).hasValue(0);
+        assertThat(registry.get("resilience.retries").counter().count()).isZero();
+        // 서킷은 그대로 닫혀 있어 실제 호출은 나간다
+        assertThat(endpoint.mono(Mono::empty, () -> Mono.just("ok"), false).block()).isEqualTo("ok");
+    }
+
+    @Test
+    void retryableFailureRetriesWithFreshPermit() {
+        ResilientEndpoint endpoint = new Resilience(properties, registry).endpoint("test");
+        AtomicInteger permits = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = endpoint.mono(
+                () -> Mono.<Void>empty().doOnSubscribe(s -> permits.incrementAndGet()),
+                () -> calls.incrementAndGet() < 3 ? Mono.error(status(503)) : Mono.just("ok"),
+                false).block();
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(permits).hasValue(3);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void nonRetryablePrimaryFailureCancelsPendingHedge() throws Exception {
+        ResilientEndpoint endpoint = hedgingEndpoint();
+        AtomicInteger calls = new AtomicInteger();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> endpoint.mono(Mono::empty, () -> {
+            calls.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(10)).then(Mono.error(status(400)));
+        }, true).block())
+                .isInstanceOf(WebClientResponseException.BadRequest.class);
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        Thread.sleep(150);  // 헤지 지연(약 60ms)이 지나도 두 번째 요청은 없어야 한다
+        assertThat(calls).hasValue(1);
+        assertThat(elapsedMs).isLessThan(60);
+        assertThat(registry.get("resilience.hedges").counter().count()).isZero();
+    }
+
+    @Test
+    void slowPrimaryIsHedged() {
+        ResilientEndpoint endpoint = hedgingEndpoint();
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = endpoint.mono(Mono::empty,
+                () -> calls.incrementAndGet() == 1 ? Mono.never() : Mono.just("hedge"), true).block();
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(registry.get("resilience.hedges").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void retryablePrimaryFailureLeavesHedgeRunning() {
+        ResilientEndpoint endpoint = hedgingEndpoint();
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = endpoint.mono(Mono::empty,
+                () -> calls.incrementAndGet() == 1 ? Mono.error(status(503)) : Mono.just("hedge"), true).block();
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(calls).hasValue(2);
+        assertThat(registry.get("resilience.retries").counter().count()).isZero();
+    }
+
+    @Test
+    void nonIdempotentCallIsNeverHedged() {
+        ResilientEndpoint endpoint = hedgingEndpoint();
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = endpoint.mono(Mono::empty,
+                () -> Mono.delay(Duration.ofMillis(150)).thenReturn("v" + calls.incrementAndGet()), false).block();
+
+        assertThat(result).isEqualTo("v1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void variantsKeepSeparateLatencyButShareTheBreaker() {
+        ResilienceProperties.Policy policy = properties.getEndpoints().get("test");
+        policy.setMinSamples(3);
+        policy.setMinTimeoutMs(1);
+        policy.setInitialTimeoutMs(5_000);
+        Resilience resilience = new Resilience(properties, registry);
+        ResilientEndpoint slow = resilience.endpoint("test", "summary");
+        ResilientEndpoint fast = resilience.endpoint("test", "structured");
+
+        for (int i = 0; i < 3; i++) {
+            slow.mono(Mono::empty, () -> Mono.delay(Duration.ofMillis(80)).thenReturn("s"), false).block();
+            fast.mono(Mono::empty, () -> Mono.just("f"), false).block();
+        }
+        assertThat(slow.timeout().toMillis()).isGreaterThanOrEqualTo(80);
+        assertThat(fast.timeout().toMillis()).isLessThan(80);
+        assertThat(resilience.endpoint("test", "summary")).isSameAs(slow);
+
+        // 한 지점의 장애로 서킷이 열리면 같은 서비스의 다른 지점도 막힌다
+        for (int i = 0; i < 2; i++) {
+            try {
+                fast.mono(Mono::empty, () -> Mono.<String>error(status(503)), false).block();
+            } catch (Exception ignore) {
+                // 재시도 후 실패
+            }
+        }
+        assertThatThrownBy(() -> slow.mono(Mono::empty, () -> Mono.just("s"), false).block())
+                .isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    void timeoutRecoversAfterLatencyRisesAboveShrunkenWindow() {
+        ResilientEndpoint endpoint = shrunkenEndpoint();
+        int attempts = 0;
+        String result = null;
+        while (result == null && attempts++ < 10) {
+            try {
+                result = endpoint.mono(Mono::empty,
+                        () -> Mono.delay(Duration.ofMillis(60)).thenReturn("slow"), false).block();
+            } catch (Exception e) {
+                assertThat(e).hasCauseInstanceOf(TimeoutException.class);
+            }
+        }
+
+        // 시간 초과마다 적용한 타임아웃이 표본으로 남아 ×1.5 씩 늘어난다: 20 → 30 → 45 → 67ms
+        assertThat(result).isEqualTo("slow");
+        assertThat(attempts).isBetween(2, 5);
+        assertThat(endpoint.timeout().toMillis()).isGreaterThanOrEqualTo(60);
+    }
+
+    @Test
+    void blockingTimeoutsAreRecordedAtTheAppliedTimeout() throws Exception {
+        ResilientEndpoint endpoint = shrunkenEndpoint();
+        for (int i = 0; i < 3; i++) {
+            long applied = endpoint.timeout().toMillis();
+            assertThatThrownBy(() -> endpoint.call(t -> {
+                throw new TimeoutException("deadline " + t.toMillis());
+            })).isInstanceOf(TimeoutException.class);
+            assertThat(endpoint.timeout().toMillis()).isGreaterThan(applied);
+        }
+    }
+
+    /** 빠른 응답만으로 창을 채워 타임아웃이 하한(20ms)까지 내려간 엔드포인트(재시도 없음) */
+    private ResilientEndpoint shrunkenEndpoint() {
+        ResilienceProperties.Policy policy = properties.getEndpoints().get("test");
+        policy.setMaxRetries(0);
+        policy.setMinSamples(5);
+        policy.setLatencyWindow(10);
+        policy.setMinTimeoutMs(20);
+        policy.setMaxTimeoutMs(2_000);
+        policy.setCircuitMinCalls(100);
+        ResilientEndpoint endpoint = new Resilience(properties, registry).endpoint("test");
+        for (int i = 0; i < 10; i++) endpoint.mono(Mono::empty, () -> Mono.just("fast"), false).block();
+        assertThat(endpoint.timeout().toMillis()).isEqualTo(20);
+        return endpoint;
+    }
+
+    /** 헤징이 켜진 정책 + p95 가 약 60ms 가 되도록 지연 표본을 채운 엔드포인트 */
+    private ResilientEndpoint hedgingEndpoint() {
+        ResilienceProperties.Policy policy = properties.getEndpoints().get("test");
+        policy.setHedge(true);
+        policy.setMinSamples(5);
+        ResilientEndpoint endpoint = new Resilience(properties, registry).endpoint("test");
+        for (int i = 0; i < 5; i++) {
+            endpoint.mono(Mono::empty, () -> Mono.delay(Duration.ofMillis(60)).thenReturn("warm"), false).block();
+        }
+        return endpoint;
+    }
+
+    static WebClientResponseException status(int code) {
+        return WebClientResponseException.create(code, HttpStatus.valueOf(code).getReasonPhrase(),
+                HttpHeaders.EMPTY, new byte[0], null);
+    }
+}